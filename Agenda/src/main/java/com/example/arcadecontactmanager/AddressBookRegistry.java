@@ -0,0 +1,404 @@
+package com.example.arcadecontactmanager;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Registru de agende (multi-tenant): fiecare utilizator are propria colecție "contacts_&lt;tenant&gt;"
+ * și propriul ContactManager, creat leneș la prima cerere. Toate agendele împart o singură conexiune MongoDB
+ * și, în modul write-behind, un singur executor pentru aplicarea jurnalelor.
+ * <p>
+ * Agendele încărcate sunt păstrate într-un cache LRU mărginit după memoria estimată
+ * ({@link ContactManager#estimateMemoryFootprint()}): când bugetul este depășit, agendele folosite
+ * cel mai demult sunt scoase din registru și închise pe un fir de fundal, apoi reîncărcate la următoarea cerere.
+ * Astfel, memoria urmărește utilizatorii activi, nu numărul total de utilizatori.
+ * <p>
+ * Agendele se folosesc doar prin {@link #withBook(String, Function)}: pe durata acțiunii agenda este
+ * închiriată (nu poate fi evacuată) și blocată pentru alte fire, deoarece ContactManager nu este thread-safe.
+ */
+public class AddressBookRegistry {
+
+    /**
+     * Bugetul implicit de memorie pentru toate agendele încărcate (256 MB).
+     */
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * Capacitatea implicită a cache-ului de detalii pentru fiecare agendă.
+     */
+    public static final int DEFAULT_DETAILS_CACHE_CAPACITY = 64;
+
+    /**
+     * Prefixul colecțiilor de contacte ale fiecărui tenant.
+     */
+    public static final String COLLECTION_PREFIX = "contacts_";
+
+    /**
+     * Identificatorii permiși (pot apărea în numele colecțiilor și al directoarelor).
+     * Doar litere mici, ca "Alice" și "alice" să nu împartă un director pe sisteme de fișiere
+     * care nu țin cont de majuscule.
+     */
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9_-]{1,64}");
+
+    /**
+     * Numărul de fire care aplică jurnalele tuturor agendelor.
+     */
+    private static final int JOURNAL_FLUSH_THREADS = 2;
+
+    private final MongoClient mongoClient;
+    private final MongoDatabase database;
+    private final Path journalRoot;
+    private final long memoryBudgetBytes;
+    private final int detailsCacheCapacity;
+
+    /**
+     * Executorul partajat al jurnalelor sau null, fără write-behind.
+     */
+    private final ScheduledExecutorService flushExecutor;
+
+    /**
+     * Firul pe care sunt închise agendele evacuate (închiderea poate aștepta MongoDB).
+     */
+    private final ExecutorService closer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "address-book-closer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Agendele încărcate, în ordinea accesării (cea mai veche prima).
+     */
+    private final LinkedHashMap<String, LoadedBook> books = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Agendele evacuate a căror închidere nu s-a terminat; o reîncărcare așteaptă închiderea,
+     * ca jurnalul să nu fie deschis de două ori.
+     */
+    private final Map<String, CountDownLatch> closing = new HashMap<>();
+
+    /**
+     * Suma memoriei estimate a agendelor încărcate.
+     */
+    private long totalFootprint;
+
+    private long hits;
+    private long loads;
+    private long evictions;
+    private boolean closed;
+
+    /**
+     * Creează registrul cu bugetul implicit, fără jurnal write-behind.
+     *
+     * @param connectionString adresa serverului MongoDB
+     * @param databaseName     numele bazei de date
+     */
+    public AddressBookRegistry(String connectionString, String databaseName) {
+        this(connectionString, databaseName, null, DEFAULT_MEMORY_BUDGET_BYTES, DEFAULT_DETAILS_CACHE_CAPACITY);
+    }
+
+    /**
+     * Creează registrul.
+     *
+     * @param connectionString     adresa serverului MongoDB
+     * @param databaseName         numele bazei de date
+     * @param journalRoot          directorul rădăcină pentru jurnalele tenant-ilor sau null (fără write-behind)
+     * @param memoryBudgetBytes    bugetul de memorie estimată pentru agendele încărcate
+     * @param detailsCacheCapacity capacitatea cache-ului de detalii pentru fiecare agendă
+     */
+    public AddressBookRegistry(String connectionString, String databaseName, Path journalRoot,
+                               long memoryBudgetBytes, int detailsCacheCapacity) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudgetBytes);
+        }
+        this.mongoClient = ContactManager.createClient(connectionString, journalRoot != null);
+        this.database = mongoClient.getDatabase(databaseName);
+        this.journalRoot = journalRoot;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.detailsCacheCapacity = detailsCacheCapacity;
+        this.flushExecutor = journalRoot == null ? null : Executors.newScheduledThreadPool(JOURNAL_FLUSH_THREADS, r -> {
+            Thread t = new Thread(r, "address-book-journal-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Rulează acțiunea pe agenda tenant-ului, încărcând-o din MongoDB dacă nu este în memorie.
+     * Pe durata acțiunii agenda nu poate fi evacuată, iar alte fire care o cer așteaptă.
+     * Managerul nu trebuie păstrat după terminarea acțiunii.
+     * După acces, agendele neînchiriate sunt evacuate dacă bugetul de memorie este depășit.
+     *
+     * @param tenantId identificatorul tenant-ului (litere mici, cifre, '_' sau '-')
+     * @param action   operația pe managerul de contacte al tenant-ului
+     * @return rezultatul acțiunii
+     */
+    public <T> T withBook(String tenantId, Function<ContactManager, T> action) {
+        if (!TENANT_ID.matcher(tenantId).matches()) {
+            throw new IllegalArgumentException("Invalid tenant id: " + tenantId);
+        }
+        LoadedBook book = acquire(tenantId);
+        long footprint = book.footprint;
+        book.lock.lock();
+        try {
+            if (isClosed()) {
+                // close() nu mai vede o agendă încărcată după el
+                throw new IllegalStateException("Registry is closed");
+            }
+            if (book.manager == null) {
+                awaitClosing(tenantId);
+                book.manager = load(tenantId);
+            }
+            try {
+                return action.apply(book.manager);
+            } finally {
+                footprint = book.manager.estimateMemoryFootprint();
+            }
+        } finally {
+            book.lock.unlock();
+            release(tenantId, book, footprint);
+        }
+    }
+
+    /**
+     * Închide și eliberează agendele neaccesate de cel puțin idleMillis (pentru curățare periodică).
+     * Agendele închiriate acum nu sunt eliberate.
+     *
+     * @param idleMillis timpul de inactivitate după care agenda este eliberată
+     * @return numărul de agende eliberate
+     */
+    public int evictIdle(long idleMillis) {
+        List<Runnable> toClose = new ArrayList<>();
+        synchronized (this) {
+            long cutoff = System.currentTimeMillis() - idleMillis;
+            Iterator<Map.Entry<String, LoadedBook>> it = books.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, LoadedBook> e = it.next();
+                LoadedBook book = e.getValue();
+                // Ordinea este după acces, deci prima agendă recentă le oprește pe celelalte
+                if (book.lastAccessMillis > cutoff) {
+                    break;
+                }
+                if (book.leases == 0) {
+                    it.remove();
+                    toClose.add(unload(e.getKey(), book));
+                }
+            }
+        }
+        scheduleClose(toClose);
+        return toClose.size();
+    }
+
+    /**
+     * Închide toate agendele (așteptând acțiunile în curs), executoarele și conexiunea la MongoDB.
+     */
+    public void close() {
+        List<LoadedBook> open;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            open = new ArrayList<>(books.values());
+            books.clear();
+            totalFootprint = 0;
+        }
+        closer.shutdown();
+        for (LoadedBook book : open) {
+            book.lock.lock();
+            try {
+                if (book.manager != null) {
+                    book.manager.close();
+                }
+            } finally {
+                book.lock.unlock();
+            }
+        }
+        try {
+            closer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+        mongoClient.close();
+    }
+
+    /**
+     * Returnează numărul de agende aflate acum în memorie.
+     */
+    public synchronized int getLoadedCount() {
+        return books.size();
+    }
+
+    /**
+     * Returnează memoria estimată a agendelor din memorie, în octeți.
+     */
+    public synchronized long getTotalFootprint() {
+        return totalFootprint;
+    }
+
+    /**
+     * Reprezentare sub formă de șir a metricilor (pentru depanare).
+     */
+    @Override
+    public synchronized String toString() {
+        return "Loaded: " + books.size() + ", Footprint: " + totalFootprint + "/" + memoryBudgetBytes
+                + ", Hits: " + hits + ", Loads: " + loads + ", Evictions: " + evictions;
+    }
+
+    /**
+     * Închiriază agenda (o creează goală, dacă nu este în registru); încărcarea se face în afara
+     * blocării registrului, sub blocarea agendei.
+     */
+    private synchronized LoadedBook acquire(String tenantId) {
+        if (closed) {
+            throw new IllegalStateException("Registry is closed");
+        }
+        LoadedBook book = books.get(tenantId);
+        if (book != null) {
+            hits++;
+        } else {
+            book = new LoadedBook();
+            books.put(tenantId, book);
+            loads++;
+        }
+        book.leases++;
+        return book;
+    }
+
+    /**
+     * Încheie închirierea: actualizează memoria estimată doar pentru agenda folosită (prin diferență)
+     * și programează închiderea agendelor evacuate.
+     */
+    private void release(String tenantId, LoadedBook book, long footprint) {
+        List<Runnable> toClose = new ArrayList<>();
+        synchronized (this) {
+            book.leases--;
+            book.lastAccessMillis = System.currentTimeMillis();
+            if (books.get(tenantId) != book) {
+                // Registrul a fost închis între timp
+                return;
+            }
+            if (book.manager == null) {
+                // Încărcarea a eșuat
+                if (book.leases == 0) {
+                    books.remove(tenantId);
+                }
+                return;
+            }
+            totalFootprint += footprint - book.footprint;
+            book.footprint = footprint;
+            evictOverBudget(tenantId, toClose);
+        }
+        scheduleClose(toClose);
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Trimite închiderile pe firul closer; după close() (executor oprit) ele rulează pe firul curent.
+     */
+    private void scheduleClose(List<Runnable> toClose) {
+        for (Runnable task : toClose) {
+            try {
+                closer.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * Așteaptă terminarea închiderii unei instanțe evacuate anterior a agendei.
+     */
+    private void awaitClosing(String tenantId) {
+        CountDownLatch latch;
+        synchronized (this) {
+            latch = closing.get(tenantId);
+        }
+        if (latch == null) {
+            return;
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for tenant " + tenantId + " to close", e);
+        }
+    }
+
+    /**
+     * Creează managerul tenant-ului și încarcă lista de contacte.
+     */
+    private ContactManager load(String tenantId) {
+        String collectionName = COLLECTION_PREFIX + tenantId;
+        Path journalDirectory = journalRoot == null ? null : journalRoot.resolve(tenantId);
+        return new ContactManager(database, collectionName, journalDirectory, detailsCacheCapacity, flushExecutor);
+    }
+
+    /**
+     * Evacuează agendele neînchiriate folosite cel mai demult până când memoria estimată încape în buget.
+     * Agenda accesată acum nu este evacuată, chiar dacă singură depășește bugetul.
+     */
+    private void evictOverBudget(String currentTenant, List<Runnable> toClose) {
+        Iterator<Map.Entry<String, LoadedBook>> it = books.entrySet().iterator();
+        while (totalFootprint > memoryBudgetBytes && it.hasNext()) {
+            Map.Entry<String, LoadedBook> eldest = it.next();
+            if (eldest.getKey().equals(currentTenant) || eldest.getValue().leases > 0) {
+                continue;
+            }
+            it.remove();
+            toClose.add(unload(eldest.getKey(), eldest.getValue()));
+        }
+    }
+
+    /**
+     * Scoate agenda din evidență (sub blocarea registrului) și returnează închiderea ei,
+     * care rulează pe firul closer.
+     */
+    private Runnable unload(String tenantId, LoadedBook book) {
+        totalFootprint -= book.footprint;
+        evictions++;
+        CountDownLatch latch = new CountDownLatch(1);
+        closing.put(tenantId, latch);
+        return () -> {
+            try {
+                // Fără jurnal, close() nu are nimic de făcut (conexiunea aparține registrului);
+                // cu jurnal, modificările rămase sunt aplicate sau reluate la reîncărcare
+                book.manager.close();
+            } finally {
+                latch.countDown();
+                synchronized (AddressBookRegistry.this) {
+                    closing.remove(tenantId, latch);
+                }
+            }
+        };
+    }
+
+    /**
+     * O agendă din registru: managerul (null până la încărcare), blocarea pentru utilizare,
+     * numărul de închirieri active și memoria estimată la ultima eliberare.
+     */
+    private static final class LoadedBook {
+        private final ReentrantLock lock = new ReentrantLock();
+        private ContactManager manager;
+        private int leases;
+        private long footprint;
+        private long lastAccessMillis;
+    }
+}
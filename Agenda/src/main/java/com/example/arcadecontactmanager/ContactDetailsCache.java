@@ -0,0 +1,251 @@
+package com.example.arcadecontactmanager;
+
+import org.bson.types.ObjectId;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU mărginit pentru detaliile complete ale contactelor (telefon, email).
+ * Lista principală păstrează doar id-ul și numele; detaliile sunt aduse la cerere
+ * și păstrate aici până când sunt evacuate de intrări mai recente.
+ * Toate metodele sunt sincronizate, deoarece cache-ul este folosit și de firul de prefetch.
+ */
+public class ContactDetailsCache {
+
+    /**
+     * Capacitatea implicită (numărul maxim de contacte păstrate în cache).
+     */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * Numărul maxim de invalidări recente ținute minte pentru {@link #putIfNotInvalidatedSince}.
+     */
+    private static final int MAX_TRACKED_INVALIDATIONS = 1024;
+
+    /**
+     * Numărul maxim de intrări păstrate.
+     */
+    private final int capacity;
+
+    /**
+     * Harta id -> contact complet, în ordinea accesării (cel mai vechi primul).
+     */
+    private final LinkedHashMap<ObjectId, Contact> entries;
+
+    /**
+     * Numărul de căutări reușite.
+     */
+    private long hits;
+
+    /**
+     * Numărul de căutări nereușite.
+     */
+    private long misses;
+
+    /**
+     * Numărul de intrări evacuate din cauza depășirii capacității.
+     */
+    private long evictions;
+
+    /**
+     * Generația curentă; crește la fiecare invalidare și golire.
+     */
+    private long generation;
+
+    /**
+     * Generația ultimei invalidări pentru id-urile invalidate recent.
+     */
+    private final LinkedHashMap<ObjectId, Long> recentInvalidations;
+
+    /**
+     * Cea mai mare generație uitată din recentInvalidations (sau a ultimei goliri);
+     * o citire începută înaintea ei nu mai poate fi verificată și este respinsă.
+     */
+    private long forgottenUpTo;
+
+    /**
+     * Creează un cache cu capacitatea implicită.
+     */
+    public ContactDetailsCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creează un cache cu capacitatea specificată.
+     *
+     * @param capacity numărul maxim de intrări (cel puțin 1)
+     */
+    public ContactDetailsCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<ObjectId, Contact>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ObjectId, Contact> eldest) {
+                if (size() > ContactDetailsCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.recentInvalidations = new LinkedHashMap<ObjectId, Long>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ObjectId, Long> eldest) {
+                if (size() > MAX_TRACKED_INVALIDATIONS) {
+                    forgottenUpTo = Math.max(forgottenUpTo, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returnează contactul complet din cache și actualizează metricile.
+     *
+     * @param id identificatorul contactului
+     * @return contactul sau null, dacă nu se află în cache
+     */
+    public synchronized Contact get(ObjectId id) {
+        Contact contact = entries.get(id);
+        if (contact != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return contact;
+    }
+
+    /**
+     * Verifică prezența unui contact fără a modifica ordinea LRU sau metricile.
+     *
+     * @param id identificatorul contactului
+     * @return true dacă detaliile sunt deja în cache
+     */
+    public synchronized boolean contains(ObjectId id) {
+        return entries.containsKey(id);
+    }
+
+    /**
+     * Returnează o copie a contactelor din cache, fără a modifica ordinea LRU sau metricile
+     * (pentru căutări de rezervă, când MongoDB nu este disponibil).
+     *
+     * @return harta id -> contact complet
+     */
+    public synchronized Map<ObjectId, Contact> snapshot() {
+        return new HashMap<>(entries);
+    }
+
+    /**
+     * Adaugă (sau înlocuiește) detaliile unui contact.
+     *
+     * @param contact contactul complet (cu id atribuit)
+     */
+    public synchronized void put(Contact contact) {
+        entries.put(contact.getId(), contact);
+    }
+
+    /**
+     * Returnează generația curentă. Se citește înainte de o interogare făcută pe alt fir,
+     * iar rezultatul se adaugă apoi cu {@link #putIfNotInvalidatedSince(Contact, long)}.
+     */
+    public synchronized long currentGeneration() {
+        return generation;
+    }
+
+    /**
+     * Adaugă detaliile doar dacă contactul nu a fost invalidat (și cache-ul nu a fost golit)
+     * după generația dată, ca o citire din bază începută înainte de o modificare să nu
+     * readucă în cache date vechi sau un contact șters.
+     *
+     * @param contact contactul complet (cu id atribuit)
+     * @param since   generația citită înainte de interogare
+     * @return true dacă detaliile au fost adăugate
+     */
+    public synchronized boolean putIfNotInvalidatedSince(Contact contact, long since) {
+        if (since < forgottenUpTo) {
+            return false;
+        }
+        Long invalidatedAt = recentInvalidations.get(contact.getId());
+        if (invalidatedAt != null && invalidatedAt > since) {
+            return false;
+        }
+        entries.put(contact.getId(), contact);
+        return true;
+    }
+
+    /**
+     * Elimină un contact din cache (de exemplu, după ștergere sau actualizare).
+     *
+     * @param id identificatorul contactului
+     */
+    public synchronized void invalidate(ObjectId id) {
+        entries.remove(id);
+        recentInvalidations.put(id, ++generation);
+    }
+
+    /**
+     * Golește cache-ul (metricile sunt păstrate).
+     */
+    public synchronized void clear() {
+        entries.clear();
+        recentInvalidations.clear();
+        forgottenUpTo = ++generation;
+    }
+
+    /**
+     * Returnează numărul curent de intrări.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returnează capacitatea maximă.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returnează numărul de căutări reușite.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returnează numărul de căutări nereușite.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returnează numărul de intrări evacuate.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returnează rata de reușită (0.0 dacă nu au existat căutări).
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Reprezentare sub formă de șir a metricilor (pentru depanare).
+     */
+    @Override
+    public synchronized String toString() {
+        return "Size: " + entries.size() + "/" + capacity
+                + ", Hits: " + hits + ", Misses: " + misses + ", Evictions: " + evictions;
+    }
+}
@@ -1,26 +1,57 @@
 package com.example.arcadecontactmanager;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoException;
 import com.mongodb.client.*;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.Updates;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Clasa ContactManager este responsabilă pentru interacțiunea cu baza de date MongoDB,
  * stochează lista locală de contacte și oferă operații CRUD.
+ * Lista locală conține doar id-ul și numele; telefonul și emailul sunt aduse la cerere
+ * prin {@link #getContactDetails(Contact)} și păstrate într-un {@link ContactDetailsCache}.
+ * În modul write-behind, modificările sunt confirmate după scrierea în {@link WriteBehindJournal}
+ * și ajung în MongoDB în fundal; citirile suprapun modificările încă neaplicate.
+ * Dacă MongoDB respinge definitiv o modificare, detaliile din cache sunt invalidate imediat, iar
+ * intrarea din listă este readusă la starea din bază la următoarea modificare sau {@link #getContacts()}.
  */
 public class ContactManager {
 
     /**
-     * Lista locală de contacte (sincronizată cu MongoDB).
+     * Lista locală de contacte (sincronizată cu MongoDB), doar cu id și nume.
      */
     private final List<Contact> contacts;
 
     /**
-     * Conexiunea la MongoDB.
+     * Indexul nume (fără majuscule) -> prima intrare cu acel nume din listă. Este reconstruit
+     * la încărcare și sortare și actualizat la fiecare modificare, deci căutările doar îl citesc
+     * (pot rula în paralel, cu modificările serializate de apelant).
+     */
+    private final Map<String, Contact> nameIndex;
+
+    /**
+     * Cache-ul LRU pentru detaliile complete ale contactelor.
+     */
+    private final ContactDetailsCache detailsCache;
+
+    /**
+     * Executorul pentru filtrare și sortare (paralel pentru liste mari).
+     */
+    private final ParallelQueryExecutor queryExecutor;
+
+    /**
+     * Conexiunea la MongoDB sau null, dacă aparține altcuiva (de exemplu, AddressBookRegistry).
      */
     private final MongoClient mongoClient;
 
@@ -34,21 +65,178 @@ public class ContactManager {
      */
     private final MongoCollection<Document> collection;
 
+    /**
+     * Jurnalul write-behind sau null, dacă modificările sunt scrise direct în MongoDB.
+     */
+    private final WriteBehindJournal journal;
+
+    /**
+     * Contactele cu modificări respinse de MongoDB, a căror intrare din listă trebuie corectată.
+     * Se completează pe firul jurnalului și se golește pe firul apelantului.
+     */
+    private final Queue<ObjectId> rejectedIds = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Adresa implicită a serverului MongoDB.
+     */
+    public static final String DEFAULT_CONNECTION_STRING = "mongodb://localhost:27017";
+
+    /**
+     * Numele implicit al bazei de date.
+     */
+    public static final String DEFAULT_DATABASE_NAME = "contactdb";
+
+    /**
+     * Numele implicit al colecției de contacte.
+     */
+    public static final String DEFAULT_COLLECTION_NAME = "contacts";
+
+    /**
+     * Estimarea memoriei ocupate de o intrare din lista locală (obiect, ObjectId, nume scurt).
+     */
+    private static final long ESTIMATED_ENTRY_BYTES = 120;
+
+    /**
+     * Estimarea memoriei ocupate de un contact complet din cache-ul de detalii.
+     */
+    private static final long ESTIMATED_DETAILS_BYTES = 260;
+
+    /**
+     * Estimarea memoriei ocupate de o intrare din indexul de nume (nod de hartă și cheia).
+     */
+    private static final long ESTIMATED_INDEX_ENTRY_BYTES = 100;
+
+    /**
+     * Numărul de documente (_id + phone) ținute simultan în memorie la filtrarea după cod.
+     */
+    private static final int FILTER_CHUNK_SIZE = 50_000;
+
+    /**
+     * Timpul maxim de așteptare a serverului în modul write-behind: citirile trec repede
+     * pe starea locală când MongoDB nu este disponibil, în loc să aștepte 30 s (valoarea implicită).
+     */
+    static final long WRITE_BEHIND_SERVER_SELECTION_TIMEOUT_MILLIS = 2_000;
+
     /**
      * Constructor - stabilește conexiunea cu MongoDB și încarcă contactele.
      */
     public ContactManager() {
+        this(DEFAULT_CONNECTION_STRING, DEFAULT_DATABASE_NAME);
+    }
+
+    /**
+     * Constructor cu server și bază de date explicite (de exemplu, o bază izolată pentru teste).
+     *
+     * @param connectionString adresa serverului MongoDB
+     * @param databaseName     numele bazei de date
+     */
+    public ContactManager(String connectionString, String databaseName) {
+        this(connectionString, databaseName, null);
+    }
+
+    /**
+     * Constructor cu mod write-behind: modificările sunt confirmate după scrierea în jurnalul
+     * local din journalDirectory și sunt aplicate în MongoDB de un fir de fundal.
+     * Modificările rămase neaplicate la o rulare anterioară sunt reluate.
+     *
+     * @param connectionString adresa serverului MongoDB
+     * @param databaseName     numele bazei de date
+     * @param journalDirectory directorul jurnalului sau null pentru scriere directă în MongoDB
+     */
+    public ContactManager(String connectionString, String databaseName, Path journalDirectory) {
+        this(createClient(connectionString, journalDirectory != null), databaseName, DEFAULT_COLLECTION_NAME,
+                journalDirectory, ContactDetailsCache.DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Creează conexiunea la MongoDB; în modul write-behind, cu un timp scurt de selecție a serverului.
+     *
+     * @param connectionString adresa serverului MongoDB
+     * @param writeBehind      true dacă modificările trec prin jurnalul local
+     */
+    static MongoClient createClient(String connectionString, boolean writeBehind) {
+        if (!writeBehind) {
+            return MongoClients.create(connectionString);
+        }
+        return MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionString))
+                .applyToClusterSettings(b -> b.serverSelectionTimeout(
+                        WRITE_BEHIND_SERVER_SELECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+                .build());
+    }
+
+    /**
+     * Constructor pentru o colecție dintr-o bază deja deschisă (conexiunea nu este închisă de close()).
+     * Folosit de AddressBookRegistry, unde toate agendele împart aceeași conexiune.
+     *
+     * @param database              baza de date
+     * @param collectionName        numele colecției de contacte
+     * @param journalDirectory      directorul jurnalului sau null pentru scriere directă în MongoDB
+     * @param detailsCacheCapacity  capacitatea cache-ului de detalii
+     */
+    public ContactManager(MongoDatabase database, String collectionName, Path journalDirectory,
+                          int detailsCacheCapacity) {
+        this(database, collectionName, journalDirectory, detailsCacheCapacity, null);
+    }
+
+    /**
+     * Constructor pentru o colecție dintr-o bază deja deschisă, cu jurnalul aplicat pe un executor
+     * partajat (de exemplu, unul singur pentru toate agendele din AddressBookRegistry).
+     *
+     * @param database              baza de date
+     * @param collectionName        numele colecției de contacte
+     * @param journalDirectory      directorul jurnalului sau null pentru scriere directă în MongoDB
+     * @param detailsCacheCapacity  capacitatea cache-ului de detalii
+     * @param flushExecutor         executorul partajat al jurnalului sau null pentru un fir propriu
+     */
+    public ContactManager(MongoDatabase database, String collectionName, Path journalDirectory,
+                          int detailsCacheCapacity, ScheduledExecutorService flushExecutor) {
+        this(null, database, collectionName, journalDirectory, detailsCacheCapacity, flushExecutor);
+    }
+
+    private ContactManager(MongoClient mongoClient, String databaseName, String collectionName,
+                           Path journalDirectory, int detailsCacheCapacity, ScheduledExecutorService flushExecutor) {
+        this(mongoClient, mongoClient.getDatabase(databaseName), collectionName, journalDirectory,
+                detailsCacheCapacity, flushExecutor);
+    }
+
+    private ContactManager(MongoClient mongoClient, MongoDatabase database, String collectionName,
+                           Path journalDirectory, int detailsCacheCapacity, ScheduledExecutorService flushExecutor) {
         this.contacts = new ArrayList<>();
-        this.mongoClient = MongoClients.create("mongodb://localhost:27017");
-        this.database = mongoClient.getDatabase("contactdb");
-        this.collection = database.getCollection("contacts");
-        loadContactsFromDatabase();
+        this.nameIndex = new HashMap<>();
+        this.detailsCache = new ContactDetailsCache(detailsCacheCapacity);
+        this.queryExecutor = new ParallelQueryExecutor();
+        this.mongoClient = mongoClient;
+        this.database = database;
+        this.collection = database.getCollection(collectionName);
+        this.journal = journalDirectory == null ? null : new WriteBehindJournal(journalDirectory, collection);
+        if (journal != null) {
+            journal.setRejectionListener(ids -> {
+                for (ObjectId id : ids) {
+                    detailsCache.invalidate(id);
+                }
+                rejectedIds.addAll(ids);
+            });
+        }
+        try {
+            loadContactsFromDatabase();
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        if (journal != null) {
+            journal.start(flushExecutor);
+        }
     }
 
     /**
      * Închide conexiunea cu MongoDB (poate fi apelată la închiderea aplicației).
+     * În modul write-behind, jurnalul încearcă mai întâi să aplice modificările rămase.
      */
     public void close() {
+        if (journal != null) {
+            journal.close();
+        }
         if (mongoClient != null) {
             mongoClient.close();
         }
@@ -56,17 +244,207 @@ public class ContactManager {
 
     /**
      * Încarcă contactele din MongoDB în lista locală.
+     * Se aduc doar câmpurile _id și name; detaliile sunt încărcate la cerere.
+     * Lista este înlocuită doar dacă citirea reușește. În modul write-behind, dacă MongoDB nu este
+     * disponibil, se păstrează lista curentă (peste care se aplică jurnalul), fără excepție.
      */
     public void loadContactsFromDatabase() {
+        reconcileRejectedChanges();
+        // Luăm modificările neaplicate înainte de citire, ca să nu pierdem una aplicată între timp
+        Map<ObjectId, WriteBehindJournal.PendingChange> pendingChanges = pendingChanges();
+        List<Contact> loadedContacts;
+        try {
+            loadedContacts = readContacts(pendingChanges);
+        } catch (MongoException e) {
+            if (journal == null) {
+                throw e;
+            }
+            applyPendingChanges(pendingChanges);
+            return;
+        }
         contacts.clear();
-        FindIterable<Document> docs = collection.find();
+        contacts.addAll(loadedContacts);
+        rebuildNameIndex();
+        detailsCache.clear();
+    }
+
+    /**
+     * Citește proiecția _id + name din MongoDB și aplică peste ea modificările neaplicate.
+     */
+    private List<Contact> readContacts(Map<ObjectId, WriteBehindJournal.PendingChange> pendingChanges) {
+        List<Contact> loadedContacts = new ArrayList<>();
+        Set<ObjectId> loaded = new HashSet<>();
+        FindIterable<Document> docs = collection.find().projection(Projections.include("name"));
         for (Document doc : docs) {
             ObjectId id = doc.getObjectId("_id");
             String name = doc.getString("name");
-            String phone = doc.getString("phone");
-            String email = doc.getString("email");
-            contacts.add(new Contact(id, name, phone, email));
+            WriteBehindJournal.PendingChange change = pendingChanges.get(id);
+            if (change != null) {
+                if (change.isDeleted()) {
+                    continue;
+                }
+                name = change.getFields().getString("name") != null ? change.getFields().getString("name") : name;
+                loaded.add(id);
+            }
+            loadedContacts.add(new Contact(id, name, null, null));
+        }
+        for (Map.Entry<ObjectId, WriteBehindJournal.PendingChange> e : pendingChanges.entrySet()) {
+            if (e.getValue().isInserted() && !loaded.contains(e.getKey())) {
+                loadedContacts.add(new Contact(e.getKey(), e.getValue().getFields().getString("name"), null, null));
+            }
         }
+        return loadedContacts;
+    }
+
+    /**
+     * Aplică modificările neaplicate peste lista curentă (când MongoDB nu poate fi citit):
+     * elimină contactele șterse, actualizează numele și adaugă contactele inserate care lipsesc.
+     */
+    private void applyPendingChanges(Map<ObjectId, WriteBehindJournal.PendingChange> pendingChanges) {
+        Set<ObjectId> present = new HashSet<>();
+        Iterator<Contact> it = contacts.iterator();
+        while (it.hasNext()) {
+            Contact c = it.next();
+            WriteBehindJournal.PendingChange change = pendingChanges.get(c.getId());
+            if (change != null && change.isDeleted()) {
+                it.remove();
+                continue;
+            }
+            if (change != null && change.getFields().getString("name") != null) {
+                c.setName(change.getFields().getString("name"));
+            }
+            present.add(c.getId());
+        }
+        for (Map.Entry<ObjectId, WriteBehindJournal.PendingChange> e : pendingChanges.entrySet()) {
+            if (e.getValue().isInserted() && !present.contains(e.getKey())) {
+                contacts.add(new Contact(e.getKey(), e.getValue().getFields().getString("name"), null, null));
+            }
+        }
+        rebuildNameIndex();
+    }
+
+    /**
+     * Returnează contactul complet (nume, telefon, email) pentru o intrare din lista locală.
+     * Mai întâi se caută în cache; la ratare, documentul este citit din MongoDB și pus în cache.
+     * În modul write-behind, dacă MongoDB nu este disponibil, se returnează (fără a fi pus în cache)
+     * numele din listă și câmpurile cunoscute din jurnal; câmpurile necunoscute sunt null.
+     *
+     * @param contact intrarea din lista locală (este suficient id-ul)
+     * @return contactul complet sau null, dacă nu mai există în bază
+     */
+    public Contact getContactDetails(Contact contact) {
+        Contact cached = detailsCache.get(contact.getId());
+        if (cached != null) {
+            return cached;
+        }
+        WriteBehindJournal.PendingChange change = journal == null ? null : journal.getPendingChange(contact.getId());
+        Document doc = null;
+        if (change == null || !(change.isDeleted() || change.isInserted())) {
+            try {
+                doc = collection.find(Filters.eq("_id", contact.getId())).first();
+            } catch (MongoException e) {
+                if (journal == null) {
+                    throw e;
+                }
+                Document fields = change == null ? new Document() : change.getFields();
+                return new Contact(contact.getId(), contact.getName(), fields.getString("phone"),
+                        fields.getString("email"));
+            }
+        }
+        Contact details = toContact(contact.getId(), doc, change);
+        if (details != null) {
+            detailsCache.put(details);
+        }
+        return details;
+    }
+
+    /**
+     * Încarcă în cache, printr-o singură interogare, detaliile contactelor care lipsesc din cache.
+     * Folosit de interfață pentru rândurile apropiate de zona vizibilă.
+     *
+     * @param toPrefetch contactele (din lista locală) ale căror detalii vor fi necesare curând
+     */
+    public void prefetchContactDetails(List<Contact> toPrefetch) {
+        List<ObjectId> missing = new ArrayList<>();
+        for (Contact c : toPrefetch) {
+            if (!detailsCache.contains(c.getId())) {
+                missing.add(c.getId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        // Rulează pe alt fir decât modificările: o invalidare făcută în timpul interogării
+        // are prioritate, iar documentul citit (posibil vechi) nu mai este pus în cache
+        long generation = detailsCache.currentGeneration();
+        // Doar modificările contactelor cerute: copia întregului jurnal ar bloca scrierile
+        Map<ObjectId, WriteBehindJournal.PendingChange> pendingChanges = journal == null
+                ? Collections.emptyMap() : journal.getPendingChanges(missing);
+        for (Document doc : collection.find(Filters.in("_id", missing))) {
+            ObjectId id = doc.getObjectId("_id");
+            Contact details = toContact(id, doc, pendingChanges.get(id));
+            if (details != null) {
+                detailsCache.putIfNotInvalidatedSince(details, generation);
+            }
+        }
+    }
+
+    /**
+     * Estimează memoria ocupată de starea locală (lista de contacte, indexul de nume, cache-ul de detalii
+     * și, în modul write-behind, modificările din jurnal încă neaplicate), în octeți.
+     * Estimarea este aproximativă, dar constantă ca timp, ca să poată fi apelată des.
+     */
+    public long estimateMemoryFootprint() {
+        long journalBytes = journal == null ? 0 : journal.estimateMemoryFootprint();
+        return contacts.size() * ESTIMATED_ENTRY_BYTES + detailsCache.size() * ESTIMATED_DETAILS_BYTES
+                + nameIndex.size() * ESTIMATED_INDEX_ENTRY_BYTES + journalBytes;
+    }
+
+    /**
+     * Returnează jurnalul write-behind sau null, dacă modul write-behind nu este activ.
+     */
+    public WriteBehindJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Returnează o copie a modificărilor neaplicate (goală fără jurnal).
+     */
+    private Map<ObjectId, WriteBehindJournal.PendingChange> pendingChanges() {
+        return journal == null ? Collections.emptyMap() : journal.getPendingChanges();
+    }
+
+    /**
+     * Returnează cache-ul de detalii (pentru metrici: hits, misses, evictions).
+     */
+    public ContactDetailsCache getDetailsCache() {
+        return detailsCache;
+    }
+
+    /**
+     * Construiește un contact complet dintr-un document MongoDB, peste care se aplică
+     * modificările încă neaplicate din jurnal.
+     *
+     * @param id     identificatorul contactului
+     * @param doc    documentul din bază (poate fi null)
+     * @param change modificările neaplicate (poate fi null)
+     * @return contactul sau null, dacă nu există (sau a fost șters)
+     */
+    private Contact toContact(ObjectId id, Document doc, WriteBehindJournal.PendingChange change) {
+        if (change != null && change.isDeleted()) {
+            return null;
+        }
+        Document fields = new Document();
+        if (change == null || !change.isInserted()) {
+            if (doc == null) {
+                return null;
+            }
+            fields.putAll(doc);
+        }
+        if (change != null) {
+            fields.putAll(change.getFields());
+        }
+        return new Contact(id, fields.getString("name"), fields.getString("phone"), fields.getString("email"));
     }
 
     /**
@@ -77,27 +455,123 @@ public class ContactManager {
      * @param email Emailul
      */
     public void addContact(String name, String phone, String email) {
+        reconcileRejectedChanges();
+        if (journal != null) {
+            ObjectId id = new ObjectId();
+            journal.appendInsert(id, name, phone, email);
+            addEntry(new Contact(id, name, null, null));
+            detailsCache.put(new Contact(id, name, phone, email));
+            return;
+        }
         Document doc = new Document("name", name)
                 .append("phone", phone)
                 .append("email", email);
         collection.insertOne(doc);
         ObjectId id = doc.getObjectId("_id");
-        contacts.add(new Contact(id, name, phone, email));
+        addEntry(new Contact(id, name, null, null));
+        detailsCache.put(new Contact(id, name, phone, email));
     }
 
     /**
-     * Caută un contact după nume (fără a ține cont de majuscule).
+     * Caută un contact după nume (fără a ține cont de majuscule) și returnează detaliile complete.
      *
      * @param name numele
      * @return Contact sau null, dacă nu este găsit
      */
     public Contact findContact(String name) {
+        Contact entry = findEntry(name);
+        return entry == null ? null : getContactDetails(entry);
+    }
+
+    /**
+     * Caută intrarea din lista locală (doar id și nume) după nume, prin indexul de nume.
+     * Dacă mai multe intrări au același nume, se returnează prima din listă.
+     *
+     * @param name numele
+     * @return intrarea sau null, dacă nu este găsită
+     */
+    private Contact findEntry(String name) {
+        return nameIndex.get(ParallelQueryExecutor.sortKey(name));
+    }
+
+    /**
+     * Adaugă o intrare la sfârșitul listei și în indexul de nume (dacă numele nu există deja).
+     */
+    private void addEntry(Contact entry) {
+        contacts.add(entry);
+        nameIndex.putIfAbsent(ParallelQueryExecutor.sortKey(entry.getName()), entry);
+    }
+
+    /**
+     * Reconstruiește indexul de nume din lista locală, în ordinea listei.
+     */
+    private void rebuildNameIndex() {
+        nameIndex.clear();
+        for (Contact c : contacts) {
+            nameIndex.putIfAbsent(ParallelQueryExecutor.sortKey(c.getName()), c);
+        }
+    }
+
+    /**
+     * Actualizează indexul pentru o singură cheie: prima intrare din listă cu acel nume sau nimic.
+     * Parcurge lista, dar este apelată doar la ștergere și redenumire.
+     */
+    private void reindexName(String key) {
         for (Contact c : contacts) {
-            if (c.getName().equalsIgnoreCase(name)) {
-                return c;
+            if (ParallelQueryExecutor.sortKey(c.getName()).equals(key)) {
+                nameIndex.put(key, c);
+                return;
+            }
+        }
+        nameIndex.remove(key);
+    }
+
+    /**
+     * Readuce intrările contactelor cu modificări respinse la starea din MongoDB (peste care se aplică
+     * modificările încă în așteptare): intrarea este eliminată, redenumită sau adăugată la loc.
+     * Dacă MongoDB nu răspunde, corectarea se reia la următorul apel.
+     */
+    private void reconcileRejectedChanges() {
+        ObjectId id;
+        while ((id = rejectedIds.peek()) != null) {
+            WriteBehindJournal.PendingChange change = journal.getPendingChange(id);
+            Document doc = null;
+            if (change == null || !(change.isDeleted() || change.isInserted())) {
+                try {
+                    doc = collection.find(Filters.eq("_id", id)).projection(Projections.include("name")).first();
+                } catch (MongoException e) {
+                    return;
+                }
             }
+            rejectedIds.poll();
+            Contact current = toContact(id, doc, change);
+            Contact entry = null;
+            for (Contact c : contacts) {
+                if (c.getId().equals(id)) {
+                    entry = c;
+                    break;
+                }
+            }
+            if (current == null && entry != null) {
+                contacts.remove(entry);
+                reindexName(ParallelQueryExecutor.sortKey(entry.getName()));
+            } else if (current != null && entry == null) {
+                addEntry(new Contact(id, current.getName(), null, null));
+            } else if (current != null && !current.getName().equals(entry.getName())) {
+                renameEntry(entry, current.getName());
+            }
+            detailsCache.invalidate(id);
         }
-        return null;
+    }
+
+    /**
+     * Schimbă numele unei intrări și actualizează indexul pentru numele vechi și cel nou.
+     */
+    private void renameEntry(Contact entry, String newName) {
+        String oldKey = ParallelQueryExecutor.sortKey(entry.getName());
+        entry.setName(newName);
+        reindexName(oldKey);
+        reindexName(ParallelQueryExecutor.sortKey(newName));
     }
 
     /**
@@ -107,10 +581,17 @@ public class ContactManager {
      * @return true dacă a fost șters, altfel false
      */
     public boolean deleteContact(String name) {
-        Contact toDelete = findContact(name);
+        reconcileRejectedChanges();
+        Contact toDelete = findEntry(name);
         if (toDelete != null) {
-            collection.deleteOne(Filters.eq("_id", toDelete.getId()));
+            if (journal != null) {
+                journal.appendDelete(toDelete.getId());
+            } else {
+                collection.deleteOne(Filters.eq("_id", toDelete.getId()));
+            }
             contacts.remove(toDelete);
+            reindexName(ParallelQueryExecutor.sortKey(toDelete.getName()));
+            detailsCache.invalidate(toDelete.getId());
             return true;
         }
         return false;
@@ -126,53 +607,123 @@ public class ContactManager {
      * @param newEmail emailul nou (dacă este gol, nu se schimbă)
      */
     public void updateContact(String oldName, String newName, String newPhone, String newEmail) {
-        Contact toUpdate = findContact(oldName);
-        if (toUpdate != null) {
+        reconcileRejectedChanges();
+        Contact toUpdate = findEntry(oldName);
+        if (toUpdate != null && journal != null) {
+            Document fields = new Document();
+            if (!newName.isEmpty()) {
+                fields.append("name", newName);
+            }
+            if (!newPhone.isEmpty()) {
+                fields.append("phone", newPhone);
+            }
+            if (!newEmail.isEmpty()) {
+                fields.append("email", newEmail);
+            }
+            if (!fields.isEmpty()) {
+                journal.appendUpdate(toUpdate.getId(), fields);
+            }
             if (!newName.isEmpty()) {
-                toUpdate.setName(newName);
+                renameEntry(toUpdate, newName);
+            }
+            detailsCache.invalidate(toUpdate.getId());
+        } else if (toUpdate != null) {
+            if (!newName.isEmpty()) {
+                renameEntry(toUpdate, newName);
                 collection.updateOne(Filters.eq("_id", toUpdate.getId()), Updates.set("name", newName));
             }
             if (!newPhone.isEmpty()) {
-                toUpdate.setPhoneNumber(newPhone);
                 collection.updateOne(Filters.eq("_id", toUpdate.getId()), Updates.set("phone", newPhone));
             }
             if (!newEmail.isEmpty()) {
-                toUpdate.setEmail(newEmail);
                 collection.updateOne(Filters.eq("_id", toUpdate.getId()), Updates.set("email", newEmail));
             }
+            detailsCache.invalidate(toUpdate.getId());
         }
     }
 
     /**
-     * Returnează lista locală de contacte (nesortată).
+     * Returnează lista locală de contacte (nesortată), doar cu id și nume.
+     * Pentru telefon și email se folosește {@link #getContactDetails(Contact)}.
+     * Lista nu trebuie modificată direct (indexul de nume nu ar mai corespunde).
      */
     public List<Contact> getContacts() {
+        reconcileRejectedChanges();
         return contacts;
     }
 
     /**
      * Sortează lista de contacte după nume (A-Z, fără a ține cont de majuscule).
-     * Se aplică listei locale.
+     * Se aplică listei locale; pentru liste mari sortarea rulează în paralel.
      */
     public void sortContactsByName() {
-        Collections.sort(contacts, Comparator.comparing(Contact::getName, String.CASE_INSENSITIVE_ORDER));
+        reconcileRejectedChanges();
+        queryExecutor.sortByName(contacts);
+        // Ordinea decide care dintre intrările cu același nume este găsită prima
+        rebuildNameIndex();
     }
 
     /**
      * Filtrare după codul telefonic: returnează doar contactele al căror cod coincide cu cel specificat.
      * Lista locală contacts nu este modificată, se returnează o nouă selecție.
+     * Telefoanele nu sunt păstrate în lista locală, așa că se citește din bază doar proiecția _id + phone.
+     * Cursorul este parcurs în bucăți de FILTER_CHUNK_SIZE documente, iar extragerea codurilor
+     * rulează în paralel pe fiecare bucată, ca proiecția să nu fie ținută întreagă în memorie.
+     * În modul write-behind, dacă MongoDB nu este disponibil, se folosesc doar telefoanele
+     * cunoscute local (din jurnal și din cache-ul de detalii).
      *
      * @param code codul telefonic (de exemplu, "7" pentru Rusia)
      * @return lista contactelor pentru care PhoneCodeUtil.extractPhoneCode coincide cu code
      */
     public List<Contact> filterContactsByPhoneCode(String code) {
-        List<Contact> filtered = new ArrayList<>();
-        for (Contact c : contacts) {
-            String cCode = PhoneCodeUtil.extractPhoneCode(c.getPhoneNumber());
-            if (cCode.equals(code)) {
-                filtered.add(c);
+        Map<ObjectId, WriteBehindJournal.PendingChange> pendingChanges = pendingChanges();
+        Set<ObjectId> matching = new HashSet<>();
+        try {
+            List<Document> chunk = new ArrayList<>(FILTER_CHUNK_SIZE);
+            FindIterable<Document> phones = collection.find()
+                    .projection(Projections.include("phone"))
+                    .batchSize(FILTER_CHUNK_SIZE);
+            for (Document doc : phones) {
+                chunk.add(doc);
+                if (chunk.size() == FILTER_CHUNK_SIZE) {
+                    collectPhoneCodeMatches(chunk, code, matching);
+                    chunk.clear();
+                }
+            }
+            collectPhoneCodeMatches(chunk, code, matching);
+        } catch (MongoException e) {
+            if (journal == null) {
+                throw e;
+            }
+            matching.clear();
+            for (Contact cached : detailsCache.snapshot().values()) {
+                if (PhoneCodeUtil.extractPhoneCode(cached.getPhoneNumber()).equals(code)) {
+                    matching.add(cached.getId());
+                }
+            }
+        }
+        // Telefoanele din jurnal (încă neaplicate) au prioritate față de cele din bază
+        for (Map.Entry<ObjectId, WriteBehindJournal.PendingChange> e : pendingChanges.entrySet()) {
+            String phone = e.getValue().getFields().getString("phone");
+            if (phone != null) {
+                if (PhoneCodeUtil.extractPhoneCode(phone).equals(code)) {
+                    matching.add(e.getKey());
+                } else {
+                    matching.remove(e.getKey());
+                }
             }
         }
-        return filtered;
+        return queryExecutor.filter(contacts, c -> matching.contains(c.getId()));
+    }
+
+    /**
+     * Adaugă în matching id-urile documentelor din bucată al căror telefon are codul dat.
+     */
+    private void collectPhoneCodeMatches(List<Document> chunk, String code, Set<ObjectId> matching) {
+        List<Document> matchingDocs = queryExecutor.filter(chunk,
+                doc -> PhoneCodeUtil.extractPhoneCode(doc.getString("phone")).equals(code));
+        for (Document doc : matchingDocs) {
+            matching.add(doc.getObjectId("_id"));
+        }
     }
-}
\ No newline at end of file
+}
@@ -4,9 +4,12 @@ import javax.swing.*;
 import javax.swing.border.LineBorder;
 import java.awt.*;
 import java.awt.event.*;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Clasa ContactManagerGUI implementează interfața grafică în stil arcade,
@@ -33,6 +36,30 @@ public class ContactManagerGUI extends JFrame {
      */
     private JComboBox<String> filterComboBox;
 
+    /**
+     * Numărul de rânduri peste și sub zona vizibilă pentru care detaliile sunt aduse din timp.
+     */
+    private static final int PREFETCH_MARGIN_ROWS = 20;
+
+    /**
+     * Contactele afișate în prezent, în aceeași ordine ca și cardurile din contactsPanel.
+     */
+    private List<Contact> displayedContacts = new ArrayList<>();
+
+    /**
+     * Panoul cu scroll care conține cardurile (folosit pentru a determina zona vizibilă).
+     */
+    private JScrollPane scrollPane;
+
+    /**
+     * Fir de fundal pentru prefetch-ul detaliilor, ca să nu blocăm interfața.
+     */
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "contact-details-prefetch");
+        t.setDaemon(true);
+        return t;
+    });
+
     /**
      * Creează fereastra aplicației cu interfața arcade.
      */
@@ -40,7 +67,7 @@ public class ContactManagerGUI extends JFrame {
         setTitle("Contact Manager - Arcade Edition");
         setSize(900, 600);
         setLocationRelativeTo(null);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
 
         // Simulăm "ecranul" unui automat arcade
         // Creăm containerul principal cu un fundal / bordură specială
@@ -49,8 +76,28 @@ public class ContactManagerGUI extends JFrame {
         mainPanel.setBackground(Color.BLACK);
         getContentPane().add(mainPanel);
 
-        // Inițializăm managerul
-        contactManager = new ContactManager();
+        // Inițializăm managerul (cu jurnal write-behind, dacă este configurat -Dcontactmanager.journalDir=...)
+        String journalDir = System.getProperty("contactmanager.journalDir");
+        if (journalDir != null) {
+            contactManager = new ContactManager(ContactManager.DEFAULT_CONNECTION_STRING,
+                    ContactManager.DEFAULT_DATABASE_NAME, Paths.get(journalDir));
+        } else {
+            contactManager = new ContactManager();
+        }
+        // La închidere, jurnalul încearcă să aplice modificările rămase; rulează pe alt fir,
+        // ca fereastra să dispară imediat chiar dacă MongoDB nu răspunde
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                dispose();
+                prefetchExecutor.shutdownNow();
+                Thread shutdown = new Thread(() -> {
+                    contactManager.close();
+                    System.exit(0);
+                }, "contact-manager-shutdown");
+                shutdown.start();
+            }
+        });
 
         // Panoul superior (simulăm panoul de control al automatului)
         JPanel topPanel = createTopPanel();
@@ -61,10 +108,17 @@ public class ContactManagerGUI extends JFrame {
         contactsPanel.setBackground(new Color(20, 20, 20));
         contactsPanel.setLayout(new GridLayout(0, 1, 10, 10));
 
-        JScrollPane scrollPane = new JScrollPane(contactsPanel);
+        scrollPane = new JScrollPane(contactsPanel);
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(255, 216, 0), 4));
         mainPanel.add(scrollPane, BorderLayout.CENTER);
 
+        // La derulare, aducem din timp detaliile rândurilor din jurul zonei vizibile
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                prefetchVisibleDetails();
+            }
+        });
+
         // Încărcăm contactele inițiale
         loadContacts();
     }
@@ -188,12 +242,47 @@ public class ContactManagerGUI extends JFrame {
      */
     private void loadContacts(List<Contact> contacts) {
         contactsPanel.removeAll();
-        for (Contact c : contacts) {
+        displayedContacts = new ArrayList<>(contacts);
+        for (Contact c : displayedContacts) {
             JPanel card = createContactCard(c);
             contactsPanel.add(card);
         }
         contactsPanel.revalidate();
         contactsPanel.repaint();
+        SwingUtilities.invokeLater(this::prefetchVisibleDetails);
+    }
+
+    /**
+     * Determină rândurile vizibile (plus o marjă de PREFETCH_MARGIN_ROWS) și
+     * încarcă în fundal detaliile lor în cache-ul managerului.
+     */
+    private void prefetchVisibleDetails() {
+        int count = Math.min(displayedContacts.size(), contactsPanel.getComponentCount());
+        if (count == 0) {
+            return;
+        }
+        Rectangle view = scrollPane.getViewport().getViewRect();
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < count; i++) {
+            Rectangle bounds = contactsPanel.getComponent(i).getBounds();
+            if (bounds.intersects(view)) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            } else if (first >= 0) {
+                break;
+            }
+        }
+        if (first < 0) {
+            first = 0;
+            last = 0;
+        }
+        int from = Math.max(0, first - PREFETCH_MARGIN_ROWS);
+        int to = Math.min(count, last + 1 + PREFETCH_MARGIN_ROWS);
+        List<Contact> window = new ArrayList<>(displayedContacts.subList(from, to));
+        prefetchExecutor.submit(() -> contactManager.prefetchContactDetails(window));
     }
 
     /**
@@ -227,16 +316,29 @@ public class ContactManagerGUI extends JFrame {
 
     /**
      * Afișează o fereastră de dialog cu informații detaliate despre contact (nume, telefon, email).
+     * Detaliile sunt cerute managerului (din cache sau, la nevoie, din MongoDB).
      *
      * @param contact contactul pentru care se afișează informații
      */
     private void showContactDetailsDialog(Contact contact) {
-        String message = "Name: " + contact.getName()
-                + "\nPhone: " + contact.getPhoneNumber()
-                + "\nEmail: " + contact.getEmail();
+        Contact details = contactManager.getContactDetails(contact);
+        if (details == null) {
+            JOptionPane.showMessageDialog(this, "Contact not found.");
+            return;
+        }
+        String message = "Name: " + details.getName()
+                + "\nPhone: " + orUnavailable(details.getPhoneNumber())
+                + "\nEmail: " + orUnavailable(details.getEmail());
         JOptionPane.showMessageDialog(this, message, "Contact Details", JOptionPane.INFORMATION_MESSAGE);
     }
 
+    /**
+     * Textul afișat pentru un câmp necunoscut (detaliile nu au putut fi citite din MongoDB).
+     */
+    private static String orUnavailable(String value) {
+        return value == null ? "(unavailable offline)" : value;
+    }
+
     /**
      * Fereastră de dialog pentru adăugarea unui contact nou.
      */
@@ -0,0 +1,215 @@
+package com.example.arcadecontactmanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Execută filtrarea și sortarea listelor de contacte pe mai multe nuclee.
+ * Lista este împărțită în partiții contigue (prietenoase cu cache-ul procesorului),
+ * procesate cu fork-join. Sub pragul parallelThreshold se lucrează secvențial,
+ * ca listele mici să nu plătească costul paralelizării.
+ */
+public class ParallelQueryExecutor {
+
+    /**
+     * Pragul implicit (număr de elemente) de la care se trece la execuția paralelă.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 10_000;
+
+    /**
+     * Dimensiunea implicită a unei partiții (elemente procesate de un singur fir).
+     */
+    public static final int DEFAULT_PARTITION_SIZE = 4_096;
+
+    /**
+     * Numărul minim de elemente pentru execuția paralelă.
+     */
+    private final int parallelThreshold;
+
+    /**
+     * Numărul maxim de elemente dintr-o partiție.
+     */
+    private final int partitionSize;
+
+    /**
+     * Pool-ul fork-join folosit.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creează un executor cu pragul și partițiile implicite, pe pool-ul comun.
+     */
+    public ParallelQueryExecutor() {
+        this(DEFAULT_PARALLEL_THRESHOLD, DEFAULT_PARTITION_SIZE);
+    }
+
+    /**
+     * Creează un executor pe pool-ul comun fork-join.
+     *
+     * @param parallelThreshold numărul minim de elemente pentru execuția paralelă
+     * @param partitionSize     numărul maxim de elemente dintr-o partiție (cel puțin 1)
+     */
+    public ParallelQueryExecutor(int parallelThreshold, int partitionSize) {
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException("Partition size must be positive: " + partitionSize);
+        }
+        this.parallelThreshold = parallelThreshold;
+        this.partitionSize = partitionSize;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Returnează pragul de la care se lucrează în paralel.
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Returnează elementele care satisfac predicatul, în ordinea inițială.
+     * Predicatul trebuie să fie sigur pentru apelarea din mai multe fire.
+     *
+     * @param items     lista sursă (nu este modificată)
+     * @param predicate condiția de filtrare
+     * @param <T>       tipul elementelor
+     * @return o listă nouă cu elementele selectate
+     */
+    public <T> List<T> filter(List<T> items, Predicate<? super T> predicate) {
+        if (items.size() < parallelThreshold) {
+            return filterRange(items, predicate, 0, items.size());
+        }
+        return pool.invoke(new FilterTask<>(items, predicate, 0, items.size()));
+    }
+
+    /**
+     * Sortează lista după nume (A-Z, fără a ține cont de majuscule), la fel ca
+     * Comparator.comparing(Contact::getName, String.CASE_INSENSITIVE_ORDER).
+     * Pentru liste mari, cheile de sortare sunt calculate o singură dată (în paralel),
+     * apoi perechile (cheie, contact) sunt sortate cu Arrays.parallelSort (stabil) și scrise înapoi.
+     *
+     * @param contacts lista care se sortează pe loc
+     */
+    public void sortByName(List<Contact> contacts) {
+        int size = contacts.size();
+        if (size < parallelThreshold) {
+            Collections.sort(contacts, Comparator.comparing(Contact::getName, String.CASE_INSENSITIVE_ORDER));
+            return;
+        }
+        SortEntry[] entries = new SortEntry[size];
+        pool.invoke(new SortKeyTask(contacts, entries, 0, size));
+        Arrays.parallelSort(entries, Comparator.comparing((SortEntry e) -> e.key));
+        for (int i = 0; i < size; i++) {
+            contacts.set(i, entries[i].contact);
+        }
+    }
+
+    /**
+     * Calculează cheia de sortare echivalentă cu String.CASE_INSENSITIVE_ORDER:
+     * fiecare caracter trece prin toUpperCase și apoi toLowerCase, iar cheile se compară ordinal.
+     *
+     * @param name numele
+     * @return cheia de sortare
+     */
+    static String sortKey(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static <T> List<T> filterRange(List<T> items, Predicate<? super T> predicate, int from, int to) {
+        List<T> result = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            T item = items.get(i);
+            if (predicate.test(item)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Pereche (cheie de sortare precalculată, contact).
+     */
+    private static final class SortEntry {
+        private final String key;
+        private final Contact contact;
+
+        private SortEntry(String key, Contact contact) {
+            this.key = key;
+            this.contact = contact;
+        }
+    }
+
+    /**
+     * Filtrează intervalul [from, to), împărțindu-l în jumătăți până la dimensiunea unei partiții.
+     */
+    private final class FilterTask<T> extends RecursiveTask<List<T>> {
+        private final List<T> items;
+        private final Predicate<? super T> predicate;
+        private final int from;
+        private final int to;
+
+        private FilterTask(List<T> items, Predicate<? super T> predicate, int from, int to) {
+            this.items = items;
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (to - from <= partitionSize) {
+                return filterRange(items, predicate, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            FilterTask<T> left = new FilterTask<>(items, predicate, from, mid);
+            left.fork();
+            List<T> right = new FilterTask<>(items, predicate, mid, to).compute();
+            List<T> result = left.join();
+            result.addAll(right);
+            return result;
+        }
+    }
+
+    /**
+     * Calculează cheile de sortare pentru intervalul [from, to).
+     */
+    private final class SortKeyTask extends RecursiveTask<Void> {
+        private final List<Contact> contacts;
+        private final SortEntry[] entries;
+        private final int from;
+        private final int to;
+
+        private SortKeyTask(List<Contact> contacts, SortEntry[] entries, int from, int to) {
+            this.contacts = contacts;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from <= partitionSize) {
+                for (int i = from; i < to; i++) {
+                    Contact c = contacts.get(i);
+                    entries[i] = new SortEntry(sortKey(c.getName()), c);
+                }
+                return null;
+            }
+            int mid = (from + to) >>> 1;
+            SortKeyTask left = new SortKeyTask(contacts, entries, from, mid);
+            left.fork();
+            new SortKeyTask(contacts, entries, mid, to).compute();
+            left.join();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,979 @@
+package com.example.arcadecontactmanager;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoInterruptedException;
+import com.mongodb.MongoNodeIsRecoveringException;
+import com.mongodb.MongoNotPrimaryException;
+import com.mongodb.MongoSecurityException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.MongoWriteConcernException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Jurnal local de tip write-behind pentru modificările contactelor.
+ * <p>
+ * O modificare (insert, update, delete) este confirmată imediat ce a fost scrisă în fișierul jurnal
+ * și sincronizată pe disc (fsync). Fsync-urile sunt grupate: un singur force() acoperă toate
+ * înregistrările scrise până atunci de toate firele. Dacă force() eșuează, înregistrările nesincronizate
+ * sunt retrase, iar apelanții lor primesc excepția. Un ciclu de fundal (pe un executor propriu sau
+ * partajat) trimite apoi modificările în MongoDB, în loturi coalescate (o singură operație per contact).
+ * <p>
+ * Erorile tranzitorii (rețea, timeout, failover) sunt reîncercate cu pauze crescătoare. Operațiile
+ * respinse definitiv de server (validare, cheie duplicată) sunt mutate în fișierul rejected,
+ * ca să nu blocheze modificările următoare.
+ * <p>
+ * Reluarea este idempotentă fără chei suplimentare: id-urile sunt generate local, inserările sunt
+ * upsert-uri complete, actualizările sunt $set, iar ștergerile după _id. Secvența ultimei înregistrări
+ * aplicate este salvată în fișierul checkpoint; după o cădere se reiau doar înregistrările de după ea
+ * (cel mult ultimul lot este reaplicat). Prefixul aplicat al jurnalului este eliminat prin trunchiere
+ * sau compactare, deci fișierul conține aproximativ doar modificările în așteptare.
+ * <p>
+ * Directorul este blocat (FileChannel.tryLock) cât timp jurnalul este deschis.
+ */
+public class WriteBehindJournal implements Closeable {
+
+    /**
+     * Numele fișierului jurnal (o înregistrare JSON pe linie).
+     */
+    public static final String JOURNAL_FILE = "contacts.journal";
+
+    /**
+     * Numele fișierului care păstrează secvența ultimei înregistrări aplicate în MongoDB.
+     */
+    public static final String CHECKPOINT_FILE = "contacts.checkpoint";
+
+    /**
+     * Numele fișierului cu înregistrările respinse definitiv de MongoDB (cu mesajul de eroare).
+     */
+    public static final String REJECTED_FILE = "contacts.rejected";
+
+    /**
+     * Numele fișierului de blocare a directorului.
+     */
+    public static final String LOCK_FILE = "contacts.lock";
+
+    /**
+     * Mărimea implicită a prefixului aplicat de la care jurnalul este compactat (4 MB).
+     */
+    public static final long DEFAULT_COMPACT_THRESHOLD_BYTES = 4L * 1024 * 1024;
+
+    /**
+     * Numărul maxim de înregistrări trimise într-un lot.
+     */
+    private static final int MAX_BATCH_SIZE = 1_000;
+
+    /**
+     * Intervalul dintre cicluri când nu există modificări noi.
+     */
+    private static final long FLUSH_INTERVAL_MILLIS = 50;
+
+    /**
+     * Pauza inițială și maximă între reîncercări când MongoDB nu este disponibil.
+     */
+    private static final long INITIAL_RETRY_MILLIS = 100;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+
+    /**
+     * Estimarea memoriei ocupate de o înregistrare în așteptare, per octet din fișier
+     * (Document cu câmpuri String și ObjectId ocupă de câteva ori lungimea liniei JSON).
+     */
+    private static final long ESTIMATED_BYTES_PER_RECORD_BYTE = 4;
+
+    /**
+     * Estimarea memoriei ocupate de starea suprapusă a unui contact (intrare de hartă și PendingChange).
+     */
+    private static final long ESTIMATED_OVERLAY_ENTRY_BYTES = 200;
+
+    /**
+     * Coduri de eroare ale serverului care indică o problemă trecătoare (sau de configurare),
+     * pentru care lotul se reîncearcă în loc să fie respins.
+     */
+    private static final Set<Integer> TRANSIENT_ERROR_CODES = new HashSet<>(Arrays.asList(
+            6, 7, 13, 89, 91, 189, 262, 9001, 10107, 11600, 11602, 13435, 13436));
+
+    private final Path journalPath;
+    private final Path checkpointPath;
+    private final Path rejectedPath;
+    private final MongoCollection<Document> collection;
+    private final long compactThresholdBytes;
+    private final FileChannel lockChannel;
+    private final FileLock directoryLock;
+
+    /**
+     * Canalul fișierului jurnal; se schimbă la compactare (sub syncLock și appendLock).
+     */
+    private FileChannel channel;
+
+    /**
+     * Protejează scrierea în jurnal, lista înregistrărilor în așteptare și starea suprapusă.
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * Serializează apelurile force(); se obține întotdeauna înaintea lui appendLock.
+     */
+    private final Object syncLock = new Object();
+
+    /**
+     * Serializează aplicarea loturilor în MongoDB (ciclul de fundal și golirea de la închidere).
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Înregistrările scrise, dar încă neaplicate în MongoDB (în ordinea secvenței).
+     */
+    private final Deque<PendingRecord> pending = new ArrayDeque<>();
+
+    /**
+     * Starea combinată a modificărilor neaplicate, per contact (folosită la citire),
+     * în ordinea primei apariții a contactului printre înregistrările în așteptare.
+     */
+    private final Map<ObjectId, PendingChange> overlay = new LinkedHashMap<>();
+
+    /**
+     * Intervalele de secvențe retrase după un fsync eșuat: cheie exclusivă -> capăt inclusiv.
+     */
+    private final TreeMap<Long, Long> rolledBack = new TreeMap<>();
+
+    /**
+     * Numărul de octeți ai înregistrărilor din pending.
+     */
+    private long pendingBytes;
+
+    private long lastWrittenSeq;
+    private volatile long durableSeq;
+
+    /**
+     * Lungimea fișierului acoperită de ultimul fsync reușit (sub syncLock).
+     */
+    private long durableLength;
+
+    private volatile long appliedSeq;
+    private volatile long rejectedCount;
+    private volatile boolean running;
+    private volatile Consumer<Set<ObjectId>> rejectionListener;
+    private ScheduledExecutorService executor;
+    private boolean ownsExecutor;
+    private ScheduledFuture<?> scheduled;
+    private long retryMillis = INITIAL_RETRY_MILLIS;
+
+    /**
+     * Deschide (sau creează) jurnalul din directorul dat și recuperează înregistrările neaplicate.
+     * Ciclul de fundal pornește doar după {@link #start()}.
+     *
+     * @param directory  directorul jurnalului
+     * @param collection colecția în care se aplică modificările
+     * @throws IllegalStateException dacă directorul este deja folosit de alt jurnal deschis
+     */
+    public WriteBehindJournal(Path directory, MongoCollection<Document> collection) {
+        this(directory, collection, DEFAULT_COMPACT_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Constructor cu pragul de compactare explicit (pentru teste).
+     */
+    WriteBehindJournal(Path directory, MongoCollection<Document> collection, long compactThresholdBytes) {
+        this.collection = collection;
+        this.compactThresholdBytes = compactThresholdBytes;
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.checkpointPath = directory.resolve(CHECKPOINT_FILE);
+        this.rejectedPath = directory.resolve(REJECTED_FILE);
+        try {
+            Files.createDirectories(directory);
+            this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal in " + directory, e);
+        }
+        this.directoryLock = tryLock(lockChannel);
+        if (directoryLock == null) {
+            closeQuietly(lockChannel);
+            throw new IllegalStateException("Journal directory is already in use: " + directory);
+        }
+        try {
+            this.appliedSeq = readCheckpoint();
+            long validLength = recover();
+            this.channel = FileChannel.open(journalPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+            // Eliminăm o eventuală ultimă linie scrisă parțial (de exemplu, după o cădere)
+            channel.truncate(validLength);
+            channel.position(validLength);
+            this.durableLength = validLength;
+        } catch (IOException | RuntimeException e) {
+            releaseDirectoryLock();
+            if (e instanceof IOException) {
+                throw new UncheckedIOException("Cannot open journal in " + directory, (IOException) e);
+            }
+            throw (RuntimeException) e;
+        }
+        this.lastWrittenSeq = Math.max(appliedSeq, pending.isEmpty() ? 0 : pending.peekLast().seq);
+        this.durableSeq = lastWrittenSeq;
+    }
+
+    /**
+     * Pornește ciclul de fundal pe un fir propriu.
+     */
+    public void start() {
+        start(null);
+    }
+
+    /**
+     * Pornește ciclul de fundal pe executorul dat (partajat de mai multe jurnale),
+     * sau pe un fir propriu dacă executor este null. Executorul partajat nu este oprit la închidere.
+     *
+     * @param sharedExecutor executorul partajat sau null
+     */
+    public synchronized void start(ScheduledExecutorService sharedExecutor) {
+        if (running) {
+            return;
+        }
+        if (sharedExecutor != null) {
+            executor = sharedExecutor;
+            ownsExecutor = false;
+        } else {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "contact-journal-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+            ownsExecutor = true;
+        }
+        running = true;
+        scheduleNext(0);
+    }
+
+    /**
+     * Setează funcția apelată (pe firul de fundal) cu id-urile contactelor ale căror modificări
+     * au fost respinse definitiv, după ce acestea au fost eliminate din starea suprapusă
+     * și înainte ca {@link #flush(long)} să le considere terminate.
+     *
+     * @param listener funcția apelată sau null
+     */
+    public void setRejectionListener(Consumer<Set<ObjectId>> listener) {
+        this.rejectionListener = listener;
+    }
+
+    /**
+     * Înregistrează inserarea unui contact nou (id-ul este generat local).
+     */
+    public void appendInsert(ObjectId id, String name, String phone, String email) {
+        Document fields = new Document("name", name).append("phone", phone).append("email", email);
+        append("insert", id, fields);
+    }
+
+    /**
+     * Înregistrează modificarea unor câmpuri ale contactului.
+     *
+     * @param fields câmpurile noi (name, phone, email)
+     */
+    public void appendUpdate(ObjectId id, Document fields) {
+        append("update", id, fields);
+    }
+
+    /**
+     * Înregistrează ștergerea unui contact.
+     */
+    public void appendDelete(ObjectId id) {
+        append("delete", id, new Document());
+    }
+
+    /**
+     * Returnează modificările neaplicate pentru un contact sau null, dacă nu există.
+     * Rezultatul este o copie, sigură pentru folosire fără blocare.
+     */
+    public PendingChange getPendingChange(ObjectId id) {
+        synchronized (appendLock) {
+            PendingChange change = overlay.get(id);
+            return change == null ? null : change.copy();
+        }
+    }
+
+    /**
+     * Returnează o copie a tuturor modificărilor neaplicate, în ordinea primei apariții.
+     * Costul este proporțional cu numărul de contacte modificate (nu cu numărul de înregistrări);
+     * când sunt necesare doar câteva contacte, se folosește {@link #getPendingChanges(Collection)}.
+     */
+    public Map<ObjectId, PendingChange> getPendingChanges() {
+        synchronized (appendLock) {
+            Map<ObjectId, PendingChange> copy = new LinkedHashMap<>();
+            for (Map.Entry<ObjectId, PendingChange> e : overlay.entrySet()) {
+                copy.put(e.getKey(), e.getValue().copy());
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Returnează o copie a modificărilor neaplicate doar pentru contactele date
+     * (cele fără modificări lipsesc din rezultat).
+     *
+     * @param ids identificatorii contactelor
+     */
+    public Map<ObjectId, PendingChange> getPendingChanges(Collection<ObjectId> ids) {
+        synchronized (appendLock) {
+            Map<ObjectId, PendingChange> copy = new HashMap<>();
+            for (ObjectId id : ids) {
+                PendingChange change = overlay.get(id);
+                if (change != null) {
+                    copy.put(id, change.copy());
+                }
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Returnează numărul de înregistrări încă neaplicate în MongoDB.
+     */
+    public int getPendingCount() {
+        synchronized (appendLock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Estimează memoria ocupată de înregistrările în așteptare și de starea suprapusă, în octeți.
+     * Crește cât timp MongoDB nu este disponibil; estimarea este constantă ca timp.
+     */
+    public long estimateMemoryFootprint() {
+        synchronized (appendLock) {
+            return pendingBytes * ESTIMATED_BYTES_PER_RECORD_BYTE + overlay.size() * ESTIMATED_OVERLAY_ENTRY_BYTES;
+        }
+    }
+
+    /**
+     * Returnează numărul de înregistrări respinse definitiv și mutate în fișierul rejected.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Așteaptă până când toate modificările confirmate până acum sunt aplicate în MongoDB
+     * (sau respinse definitiv).
+     *
+     * @param timeoutMillis timpul maxim de așteptare
+     * @return true dacă modificările au fost aplicate în timpul dat
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long target = lastPendingSeqUpTo(durableSeq);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (this) {
+            while (appliedSeq < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(Math.min(remaining, FLUSH_INTERVAL_MILLIS));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Oprește ciclul de fundal, face o ultimă încercare (fără reîncercări) de a aplica
+     * modificările, apoi închide fișierul și eliberează directorul.
+     * Modificările rămase neaplicate sunt reluate la următoarea deschidere.
+     */
+    @Override
+    public void close() {
+        ScheduledFuture<?> future;
+        synchronized (this) {
+            running = false;
+            future = scheduled;
+            notifyAll();
+        }
+        if (future != null) {
+            future.cancel(false);
+        }
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+        synchronized (flushLock) {
+            try {
+                while (collection != null && applyNextBatch()) {
+                    // se golește lot cu lot
+                }
+            } catch (RuntimeException e) {
+                // MongoDB indisponibil: înregistrările rămân în jurnal pentru repornire
+            }
+        }
+        synchronized (syncLock) {
+            closeQuietly(channel);
+        }
+        releaseDirectoryLock();
+    }
+
+    /**
+     * Scrie înregistrarea în jurnal și revine doar după ce a fost sincronizată pe disc.
+     *
+     * @throws UncheckedIOException dacă scrierea sau sincronizarea eșuează; înregistrarea nu este păstrată
+     */
+    private void append(String op, ObjectId id, Document fields) {
+        long seq;
+        synchronized (appendLock) {
+            seq = ++lastWrittenSeq;
+            Document record = new Document("seq", seq)
+                    .append("op", op)
+                    .append("id", id)
+                    .append("fields", fields);
+            byte[] line = (record.toJson() + "\n").getBytes(StandardCharsets.UTF_8);
+            long start = -1;
+            try {
+                start = channel.position();
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                // O linie scrisă parțial ar ascunde la recuperare înregistrările următoare
+                lastWrittenSeq--;
+                if (start >= 0) {
+                    try {
+                        channel.truncate(start);
+                        channel.position(start);
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                }
+                throw new UncheckedIOException("Cannot append to journal " + journalPath, e);
+            }
+            pending.addLast(new PendingRecord(record, line.length));
+            pendingBytes += line.length;
+            merge(overlay, record);
+        }
+        awaitDurable(seq);
+    }
+
+    /**
+     * Fsync grupat: primul fir care intră sincronizează tot ce s-a scris până atunci,
+     * iar firele următoare găsesc secvența lor deja acoperită. Dacă force() eșuează,
+     * toate înregistrările nesincronizate sunt retrase și fiecare apelant primește eroarea.
+     */
+    private void awaitDurable(long seq) {
+        synchronized (syncLock) {
+            if (isRolledBack(seq)) {
+                throw new UncheckedIOException(new IOException("Journal sync failed, record " + seq + " was discarded"));
+            }
+            if (durableSeq >= seq) {
+                return;
+            }
+            long target;
+            long targetLength;
+            try {
+                synchronized (appendLock) {
+                    target = lastWrittenSeq;
+                    targetLength = channel.position();
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                rollBackUnsynced(e);
+                throw new UncheckedIOException("Cannot sync journal " + journalPath, e);
+            }
+            durableSeq = target;
+            durableLength = targetLength;
+        }
+    }
+
+    /**
+     * Retrage înregistrările scrise după ultimul fsync reușit (apelată sub syncLock).
+     */
+    private void rollBackUnsynced(IOException cause) {
+        synchronized (appendLock) {
+            long durable = durableSeq;
+            if (lastWrittenSeq > durable) {
+                rolledBack.put(durable, lastWrittenSeq);
+            }
+            pending.removeIf(record -> record.seq > durable);
+            rebuildOverlay();
+            try {
+                channel.truncate(durableLength);
+                channel.position(durableLength);
+            } catch (IOException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+
+    private boolean isRolledBack(long seq) {
+        synchronized (appendLock) {
+            Map.Entry<Long, Long> range = rolledBack.lowerEntry(seq);
+            return range != null && seq <= range.getValue();
+        }
+    }
+
+    /**
+     * Returnează cea mai mare secvență în așteptare care nu depășește seq (0 dacă nu există).
+     */
+    private long lastPendingSeqUpTo(long seq) {
+        synchronized (appendLock) {
+            long last = 0;
+            Iterator<PendingRecord> it = pending.descendingIterator();
+            while (it.hasNext()) {
+                long candidate = it.next().seq;
+                if (candidate <= seq) {
+                    last = candidate;
+                    break;
+                }
+            }
+            return last;
+        }
+    }
+
+    private synchronized void scheduleNext(long delayMillis) {
+        if (running) {
+            scheduled = executor.schedule(this::flushCycle, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Un ciclu de fundal: aplică un lot și se reprogramează imediat (dacă a fost ceva de aplicat),
+     * după FLUSH_INTERVAL_MILLIS (dacă nu) sau după o pauză crescătoare (la eroare).
+     */
+    private void flushCycle() {
+        long delay;
+        synchronized (flushLock) {
+            if (!running) {
+                return;
+            }
+            try {
+                delay = applyNextBatch() ? 0 : FLUSH_INTERVAL_MILLIS;
+                retryMillis = INITIAL_RETRY_MILLIS;
+            } catch (RuntimeException e) {
+                // Erori tranzitorii MongoDB sau I/O: lotul rămâne în jurnal și este reîncercat
+                delay = retryMillis;
+                retryMillis = Math.min(MAX_RETRY_MILLIS, retryMillis * 2);
+            }
+        }
+        scheduleNext(delay);
+    }
+
+    /**
+     * Aplică în MongoDB următorul lot de înregistrări sincronizate pe disc (sub flushLock).
+     * Operațiile respinse definitiv sunt mutate în fișierul rejected; erorile tranzitorii sunt aruncate.
+     *
+     * @return true dacă a fost aplicat un lot, false dacă nu era nimic de aplicat
+     */
+    private boolean applyNextBatch() {
+        List<Document> batch = new ArrayList<>();
+        synchronized (appendLock) {
+            long durable = durableSeq;
+            for (PendingRecord record : pending) {
+                if (batch.size() == MAX_BATCH_SIZE || record.seq > durable) {
+                    break;
+                }
+                batch.add(record.record);
+            }
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        Map<ObjectId, WriteModel<Document>> writes = coalesce(batch);
+        Map<ObjectId, String> rejected = new LinkedHashMap<>();
+        if (!writes.isEmpty()) {
+            List<ObjectId> ids = new ArrayList<>(writes.keySet());
+            try {
+                collection.bulkWrite(new ArrayList<>(writes.values()), new BulkWriteOptions().ordered(false));
+            } catch (MongoBulkWriteException e) {
+                if (e.getWriteConcernError() != null || e.getWriteErrors().isEmpty()) {
+                    throw e;
+                }
+                // Lot neordonat: operațiile fără eroare au fost aplicate, cele cu eroare sunt definitive
+                for (BulkWriteError error : e.getWriteErrors()) {
+                    rejected.put(ids.get(error.getIndex()), error.getMessage());
+                }
+            } catch (MongoException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                applyIndividually(writes, rejected);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            park(batch, rejected);
+        }
+        long batchSeq = batch.get(batch.size() - 1).getLong("seq");
+        writeCheckpoint(batchSeq);
+        markApplied(batchSeq, rejected.keySet());
+        return true;
+    }
+
+    /**
+     * Aplică operațiile una câte una, ca să izoleze operația care provoacă o eroare definitivă.
+     * O eroare tranzitorie oprește lotul (reaplicarea ulterioară este idempotentă).
+     */
+    private void applyIndividually(Map<ObjectId, WriteModel<Document>> writes, Map<ObjectId, String> rejected) {
+        for (Map.Entry<ObjectId, WriteModel<Document>> e : writes.entrySet()) {
+            try {
+                collection.bulkWrite(Collections.singletonList(e.getValue()));
+            } catch (MongoBulkWriteException ex) {
+                if (ex.getWriteConcernError() != null || ex.getWriteErrors().isEmpty()) {
+                    throw ex;
+                }
+                rejected.put(e.getKey(), ex.getWriteErrors().get(0).getMessage());
+            } catch (MongoException ex) {
+                if (isTransient(ex)) {
+                    throw ex;
+                }
+                rejected.put(e.getKey(), String.valueOf(ex.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Stabilește dacă o eroare MongoDB merită reîncercată (rețea, timeout, failover, autorizare)
+     * sau este definitivă pentru operațiile din lot.
+     */
+    static boolean isTransient(MongoException e) {
+        if (e instanceof MongoSocketException || e instanceof MongoTimeoutException
+                || e instanceof MongoNotPrimaryException || e instanceof MongoNodeIsRecoveringException
+                || e instanceof MongoWriteConcernException || e instanceof MongoSecurityException
+                || e instanceof MongoInterruptedException) {
+            return true;
+        }
+        return e.hasErrorLabel("RetryableWriteError") || TRANSIENT_ERROR_CODES.contains(e.getCode());
+    }
+
+    /**
+     * Adaugă în fișierul rejected înregistrările lotului pentru contactele respinse.
+     */
+    private void park(List<Document> batch, Map<ObjectId, String> rejected) {
+        StringBuilder lines = new StringBuilder();
+        int count = 0;
+        for (Document record : batch) {
+            String error = rejected.get(record.getObjectId("id"));
+            if (error != null) {
+                lines.append(new Document(record).append("error", error).toJson()).append('\n');
+                count++;
+            }
+        }
+        try {
+            Files.write(rejectedPath, lines.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND,
+                    StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write rejected records to " + rejectedPath, e);
+        }
+        rejectedCount += count;
+    }
+
+    /**
+     * Elimină înregistrările aplicate din memorie și din fișier: jurnalul este trunchiat dacă nu mai
+     * există nimic în așteptare, sau rescris doar cu înregistrările în așteptare când prefixul aplicat
+     * depășește pragul de compactare și cel puțin jumătate din fișier.
+     */
+    void markApplied(long batchSeq) {
+        markApplied(batchSeq, Collections.emptySet());
+    }
+
+    /**
+     * Ca {@link #markApplied(long)}, apoi anunță contactele respinse din lot, înainte ca
+     * secvența aplicată (pe care o așteaptă flush) să avanseze.
+     */
+    private void markApplied(long batchSeq, Set<ObjectId> rejectedIds) {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                while (!pending.isEmpty() && pending.peekFirst().seq <= batchSeq) {
+                    pendingBytes -= pending.removeFirst().length;
+                }
+                overlay.values().removeIf(change -> change.lastSeq <= batchSeq);
+                try {
+                    if (pending.isEmpty()) {
+                        channel.truncate(0);
+                        channel.position(0);
+                        channel.force(false);
+                        durableLength = 0;
+                    } else {
+                        long appliedBytes = channel.size() - pendingBytes;
+                        if (appliedBytes >= compactThresholdBytes && appliedBytes >= pendingBytes) {
+                            compact();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot shrink journal " + journalPath, e);
+                }
+            }
+        }
+        Consumer<Set<ObjectId>> listener = rejectionListener;
+        if (listener != null && !rejectedIds.isEmpty()) {
+            listener.accept(Collections.unmodifiableSet(rejectedIds));
+        }
+        synchronized (this) {
+            appliedSeq = batchSeq;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Rescrie jurnalul doar cu înregistrările în așteptare (fișier temporar + mutare atomică).
+     * Apelată sub syncLock și appendLock; înregistrările rescrise sunt sincronizate pe disc.
+     */
+    private void compact() throws IOException {
+        Path tmp = journalPath.resolveSibling(JOURNAL_FILE + ".tmp");
+        long length = 0;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (PendingRecord record : pending) {
+                ByteBuffer buffer = ByteBuffer.wrap((record.record.toJson() + "\n").getBytes(StandardCharsets.UTF_8));
+                length += buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(false);
+        }
+        channel.close();
+        Files.move(tmp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        channel.position(length);
+        pendingBytes = length;
+        durableSeq = lastWrittenSeq;
+        durableLength = length;
+    }
+
+    /**
+     * Transformă un lot de înregistrări într-o singură operație per contact:
+     * ștergere, upsert complet (pentru contactele inserate în lot) sau $set cu câmpurile combinate.
+     *
+     * @param batch înregistrările, în ordinea secvenței
+     * @return operațiile pentru bulkWrite, după id-ul contactului
+     */
+    static Map<ObjectId, WriteModel<Document>> coalesce(List<Document> batch) {
+        Map<ObjectId, PendingChange> changes = new LinkedHashMap<>();
+        for (Document record : batch) {
+            merge(changes, record);
+        }
+        Map<ObjectId, WriteModel<Document>> writes = new LinkedHashMap<>();
+        for (Map.Entry<ObjectId, PendingChange> e : changes.entrySet()) {
+            ObjectId id = e.getKey();
+            PendingChange change = e.getValue();
+            if (change.deleted) {
+                writes.put(id, new DeleteOneModel<>(Filters.eq("_id", id)));
+            } else if (change.inserted) {
+                Document doc = new Document("_id", id).append("name", change.fields.getString("name"))
+                        .append("phone", change.fields.getString("phone"))
+                        .append("email", change.fields.getString("email"));
+                writes.put(id, new ReplaceOneModel<>(Filters.eq("_id", id), doc, new ReplaceOptions().upsert(true)));
+            } else if (!change.fields.isEmpty()) {
+                writes.put(id, new UpdateOneModel<>(Filters.eq("_id", id), new Document("$set", change.fields)));
+            }
+        }
+        return writes;
+    }
+
+    /**
+     * Combină o înregistrare cu starea existentă a contactului.
+     */
+    private static void merge(Map<ObjectId, PendingChange> changes, Document record) {
+        ObjectId id = record.getObjectId("id");
+        PendingChange change = changes.computeIfAbsent(id, k -> new PendingChange());
+        Document fields = record.get("fields", Document.class);
+        switch (record.getString("op")) {
+            case "insert":
+                change.inserted = true;
+                change.deleted = false;
+                change.fields = new Document(fields);
+                break;
+            case "update":
+                change.fields.putAll(fields);
+                break;
+            case "delete":
+                change.inserted = false;
+                change.deleted = true;
+                change.fields = new Document();
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal operation: " + record.getString("op"));
+        }
+        change.lastSeq = record.getLong("seq");
+    }
+
+    private void rebuildOverlay() {
+        overlay.clear();
+        pendingBytes = 0;
+        for (PendingRecord record : pending) {
+            merge(overlay, record.record);
+            pendingBytes += record.length;
+        }
+    }
+
+    /**
+     * Citește jurnalul existent și reține înregistrările cu secvența după checkpoint.
+     * Sunt citite doar liniile complete (terminate cu '\n'); ne oprim la prima linie coruptă.
+     *
+     * @return lungimea (în octeți) a părții valide a jurnalului
+     */
+    private long recover() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+        long validLength = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(journalPath))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) >= 0) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                Document record;
+                try {
+                    record = Document.parse(new String(line.toByteArray(), StandardCharsets.UTF_8));
+                    record.put("seq", ((Number) record.get("seq")).longValue());
+                    record.getObjectId("id");
+                } catch (RuntimeException e) {
+                    break;
+                }
+                int length = line.size() + 1;
+                validLength += length;
+                line.reset();
+                if (record.getLong("seq") > appliedSeq) {
+                    pending.addLast(new PendingRecord(record, length));
+                    pendingBytes += length;
+                    merge(overlay, record);
+                }
+            }
+        }
+        return validLength;
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointPath)) {
+            return 0;
+        }
+        String text = new String(Files.readAllBytes(checkpointPath), StandardCharsets.UTF_8).trim();
+        return text.isEmpty() ? 0 : Long.parseLong(text);
+    }
+
+    /**
+     * Salvează atomic secvența aplicată (fișier temporar + mutare).
+     */
+    private void writeCheckpoint(long seq) {
+        Path tmp = checkpointPath.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.write(tmp, Long.toString(seq).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+            Files.move(tmp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write checkpoint " + checkpointPath, e);
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Blocat deja de un alt jurnal din același proces
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot lock journal directory", e);
+        }
+    }
+
+    private void releaseDirectoryLock() {
+        try {
+            directoryLock.release();
+        } catch (IOException e) {
+            // canalul este închis imediat după
+        }
+        closeQuietly(lockChannel);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // nimic de făcut la închidere
+        }
+    }
+
+    /**
+     * O înregistrare în așteptare și lungimea liniei ei din fișier.
+     */
+    private static final class PendingRecord {
+        private final Document record;
+        private final long seq;
+        private final int length;
+
+        private PendingRecord(Document record, int length) {
+            this.record = record;
+            this.seq = record.getLong("seq");
+            this.length = length;
+        }
+    }
+
+    /**
+     * Starea combinată a modificărilor neaplicate pentru un contact.
+     */
+    public static class PendingChange {
+        private boolean inserted;
+        private boolean deleted;
+        private Document fields = new Document();
+        private long lastSeq;
+
+        /**
+         * Contactul a fost creat prin jurnal și are toate câmpurile în {@link #getFields()}.
+         */
+        public boolean isInserted() {
+            return inserted;
+        }
+
+        /**
+         * Contactul a fost șters.
+         */
+        public boolean isDeleted() {
+            return deleted;
+        }
+
+        /**
+         * Câmpurile noi (name, phone, email); pentru update, doar cele modificate.
+         */
+        public Document getFields() {
+            return fields;
+        }
+
+        private PendingChange copy() {
+            PendingChange copy = new PendingChange();
+            copy.inserted = inserted;
+            copy.deleted = deleted;
+            copy.fields = new Document(fields);
+            copy.lastSeq = lastSeq;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.arcadecontactmanager;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set de teste pentru AddressBookRegistry (necesită un mongod local).
+ * Verificăm izolarea agendelor între tenant-i, evacuarea după buget, reîncărcarea la cerere
+ * și faptul că o agendă închiriată nu este evacuată.
+ */
+public class AddressBookRegistryTest {
+
+    /**
+     * Bază de date izolată, pentru a nu atinge contactele reale.
+     */
+    private static final String TEST_DATABASE = "contactdb_tenants_test";
+
+    private AddressBookRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        dropTestDatabase();
+        // Buget mic: încape o singură agendă cu un contact (o intrare în listă + detaliile ei)
+        registry = new AddressBookRegistry(ContactManager.DEFAULT_CONNECTION_STRING, TEST_DATABASE,
+                null, 500, 4);
+    }
+
+    @Test
+    public void testTenantsAreIsolated() {
+        registry.withBook("alice", m -> {
+            m.addContact("Bob", "+44 777 123 456", "bob@uk.org");
+            return null;
+        });
+        registry.withBook("carol", m -> {
+            m.addContact("Dave", "+49 555 000 111", "dave@de.org");
+            return null;
+        });
+
+        assertNotNull(registry.withBook("alice", m -> m.findContact("Bob")));
+        assertNull(registry.withBook("alice", m -> m.findContact("Dave")));
+        assertNotNull(registry.withBook("carol", m -> m.findContact("Dave")));
+        assertNull(registry.withBook("carol", m -> m.findContact("Bob")));
+    }
+
+    @Test
+    public void testIdleBooksAreEvictedAndReloaded() {
+        registry.withBook("alice", m -> {
+            m.addContact("Bob", "+44 777 123 456", "bob@uk.org");
+            return null;
+        });
+        registry.withBook("carol", m -> {
+            m.addContact("Dave", "+49 555 000 111", "dave@de.org");
+            return null;
+        });
+
+        // Agenda lui alice este cea mai veche și a fost evacuată
+        assertEquals(1, registry.getLoadedCount());
+        assertTrue(registry.getTotalFootprint() <= 500);
+
+        Contact reloaded = registry.withBook("alice", m -> m.findContact("Bob"));
+        assertNotNull(reloaded, "Agenda evacuată ar trebui reîncărcată din MongoDB");
+        assertEquals("bob@uk.org", reloaded.getEmail());
+        // Agenda reîncărcată (cu detaliile și indexul de nume) ocupă singură aproape tot bugetul
+        assertEquals(1, registry.getLoadedCount());
+        assertTrue(registry.getTotalFootprint() <= 500);
+
+        assertEquals(1, registry.evictIdle(0));
+        assertEquals(0, registry.getLoadedCount());
+        assertEquals(0, registry.getTotalFootprint());
+    }
+
+    @Test
+    public void testBookInUseIsNotEvicted() {
+        registry.withBook("alice", alice -> {
+            alice.addContact("Bob", "+44 777 123 456", "bob@uk.org");
+            registry.withBook("carol", carol -> {
+                carol.addContact("Dave", "+49 555 000 111", "dave@de.org");
+                return null;
+            });
+            // Bugetul este depășit, dar agenda lui alice este închiriată
+            assertEquals(2, registry.getLoadedCount());
+            assertEquals(1, registry.evictIdle(0), "Doar agenda lui carol poate fi eliberată");
+            alice.addContact("Eve", "+81 3 1234 5678", "eve@jp.org");
+            return null;
+        });
+
+        assertEquals(1, registry.getLoadedCount());
+        assertNotNull(registry.withBook("alice", m -> m.findContact("Eve")));
+    }
+
+    @Test
+    public void testRejectsInvalidTenantId() {
+        assertThrows(IllegalArgumentException.class, () -> registry.withBook("../contacts", m -> null));
+        // Doar litere mici: "Alice" și "alice" ar împărți directorul jurnalului pe unele sisteme de fișiere
+        assertThrows(IllegalArgumentException.class, () -> registry.withBook("Alice", m -> null));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        registry.close();
+        dropTestDatabase();
+    }
+
+    private static void dropTestDatabase() {
+        try (MongoClient client = MongoClients.create(ContactManager.DEFAULT_CONNECTION_STRING)) {
+            client.getDatabase(TEST_DATABASE).drop();
+        }
+    }
+}
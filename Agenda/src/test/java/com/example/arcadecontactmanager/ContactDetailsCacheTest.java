@@ -0,0 +1,77 @@
+package com.example.arcadecontactmanager;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste pentru ContactDetailsCache (nu necesită MongoDB).
+ * Verificăm evacuarea LRU și metricile hits/misses/evictions.
+ */
+public class ContactDetailsCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ContactDetailsCache cache = new ContactDetailsCache(2);
+        Contact alice = new Contact(new ObjectId(), "Alice", "+1 123", "alice@example.com");
+        Contact bob = new Contact(new ObjectId(), "Bob", "+44 777", "bob@uk.org");
+        Contact carol = new Contact(new ObjectId(), "Carol", "+49 555", "carol@de.org");
+
+        cache.put(alice);
+        cache.put(bob);
+        // Accesăm Alice, deci Bob devine cel mai vechi
+        assertSame(alice, cache.get(alice.getId()));
+        cache.put(carol);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.contains(alice.getId()));
+        assertFalse(cache.contains(bob.getId()), "Bob ar trebui să fie evacuat");
+        assertTrue(cache.contains(carol.getId()));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testHitMissMetrics() {
+        ContactDetailsCache cache = new ContactDetailsCache(4);
+        Contact alice = new Contact(new ObjectId(), "Alice", "+1 123", "alice@example.com");
+
+        assertNull(cache.get(alice.getId()));
+        cache.put(alice);
+        assertNotNull(cache.get(alice.getId()));
+        assertNotNull(cache.get(alice.getId()));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2.0 / 3.0, cache.getHitRate(), 1e-9);
+
+        cache.invalidate(alice.getId());
+        assertFalse(cache.contains(alice.getId()));
+    }
+
+    @Test
+    public void testStaleReadIsNotCachedAfterInvalidation() {
+        ContactDetailsCache cache = new ContactDetailsCache(4);
+        Contact alice = new Contact(new ObjectId(), "Alice", "+1 123", "alice@example.com");
+        Contact bob = new Contact(new ObjectId(), "Bob", "+44 777", "bob@uk.org");
+
+        // Prefetch-ul citește generația, apoi contactul este modificat/șters pe alt fir
+        long generation = cache.currentGeneration();
+        cache.invalidate(alice.getId());
+
+        assertFalse(cache.putIfNotInvalidatedSince(alice, generation), "Citirea veche nu trebuie pusă în cache");
+        assertFalse(cache.contains(alice.getId()));
+        assertTrue(cache.putIfNotInvalidatedSince(bob, generation), "Bob nu a fost invalidat");
+
+        // După golire, orice citire începută înainte este respinsă
+        long beforeClear = cache.currentGeneration();
+        cache.clear();
+        assertFalse(cache.putIfNotInvalidatedSince(bob, beforeClear));
+        assertTrue(cache.putIfNotInvalidatedSince(bob, cache.currentGeneration()));
+    }
+
+    @Test
+    public void testRejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new ContactDetailsCache(0));
+    }
+}
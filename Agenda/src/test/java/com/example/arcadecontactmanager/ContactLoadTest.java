@@ -0,0 +1,256 @@
+package com.example.arcadecontactmanager;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de încărcare (end-to-end) pentru ContactManager pe un mongod local.
+ * Generează un set de date sintetic, determinist, într-o bază de date izolată,
+ * rulează un amestec de citiri/scrieri pe mai multe fire și raportează
+ * debitul (ops/s) și latențele p50/p99/p999 pentru fiecare tip de operație.
+ * <p>
+ * Rulează doar la cerere, de exemplu:
+ * <pre>
+ * mvn test -Dtest=ContactLoadTest -Dloadtest=true -Dloadtest.contacts=1000000 -Dloadtest.threads=16
+ * </pre>
+ * Parametri (proprietăți de sistem): loadtest.uri, loadtest.db, loadtest.contacts (10k..5M),
+ * loadtest.seed, loadtest.threads, loadtest.operations, loadtest.writeRatio, loadtest.keep.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class ContactLoadTest {
+
+    /**
+     * Dimensiunea lotului la popularea bazei.
+     */
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    /**
+     * Ponderea filtrărilor (scanare completă) printre citiri.
+     */
+    private static final double FILTER_SHARE_OF_READS = 0.001;
+
+    /**
+     * Intervalul suportat pentru dimensiunea setului de date.
+     */
+    private static final int MIN_CONTACTS = 10_000;
+    private static final int MAX_CONTACTS = 5_000_000;
+
+    private final String uri = System.getProperty("loadtest.uri", ContactManager.DEFAULT_CONNECTION_STRING);
+    private final String databaseName = System.getProperty("loadtest.db", "contactdb_loadtest");
+    private final int contactCount = Integer.getInteger("loadtest.contacts", 10_000);
+    private final long seed = Long.getLong("loadtest.seed", 42L);
+    private final int threads = Integer.getInteger("loadtest.threads", Runtime.getRuntime().availableProcessors());
+    private final int operations = Integer.getInteger("loadtest.operations", 100_000);
+    private final double writeRatio = Double.parseDouble(System.getProperty("loadtest.writeRatio", "0.1"));
+    private final boolean keepDatabase = Boolean.getBoolean("loadtest.keep");
+
+    @Test
+    public void testMixedWorkload() throws Exception {
+        assertNotEquals(ContactManager.DEFAULT_DATABASE_NAME, databaseName,
+                "Testul de încărcare nu trebuie să ruleze pe baza reală");
+        assertTrue(contactCount >= MIN_CONTACTS && contactCount <= MAX_CONTACTS,
+                "loadtest.contacts trebuie să fie între " + MIN_CONTACTS + " și " + MAX_CONTACTS);
+        assertTrue(threads > 0 && operations > 0, "Parametri invalizi");
+
+        SyntheticContactGenerator generator = new SyntheticContactGenerator(seed);
+        seedDatabase(generator);
+
+        long loadStart = System.nanoTime();
+        ContactManager manager = new ContactManager(uri, databaseName);
+        long loadNanos = System.nanoTime() - loadStart;
+        assertEquals(contactCount, manager.getContacts().size());
+
+        try {
+            Map<String, LatencyRecorder> results = runWorkload(manager, generator);
+            report(loadNanos, results, manager);
+        } finally {
+            manager.close();
+            if (!keepDatabase) {
+                dropDatabase();
+            }
+        }
+    }
+
+    /**
+     * Golește baza izolată și o populează în loturi cu contactele generate.
+     */
+    private void seedDatabase(SyntheticContactGenerator generator) {
+        try (MongoClient client = MongoClients.create(uri)) {
+            client.getDatabase(databaseName).drop();
+            MongoCollection<Document> collection = client.getDatabase(databaseName).getCollection("contacts");
+            List<Document> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+            for (long i = 0; i < contactCount; i++) {
+                Contact c = generator.contactAt(i);
+                batch.add(new Document("name", c.getName())
+                        .append("phone", c.getPhoneNumber())
+                        .append("email", c.getEmail()));
+                if (batch.size() == INSERT_BATCH_SIZE) {
+                    collection.insertMany(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                collection.insertMany(batch);
+            }
+        }
+    }
+
+    private void dropDatabase() {
+        try (MongoClient client = MongoClients.create(uri)) {
+            client.getDatabase(databaseName).drop();
+        }
+    }
+
+    /**
+     * Rulează operațiile pe threads fire. ContactManager nu este thread-safe pentru modificări,
+     * așa că scrierile rulează sub write-lock. Citirile (findContact, filterContactsByPhoneCode)
+     * nu modifică lista sau indexul de nume, iar cache-ul de detalii este sincronizat,
+     * deci rulează în paralel sub un read-lock.
+     *
+     * @return latențele pe tipuri de operații (plus "total")
+     */
+    private Map<String, LatencyRecorder> runWorkload(ContactManager manager, SyntheticContactGenerator generator)
+            throws Exception {
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        AtomicLong nextNewIndex = new AtomicLong(contactCount);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Map<String, LatencyRecorder>>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            final int opsForThread = operations / threads + (t < operations % threads ? 1 : 0);
+            final Random random = new Random(seed + 31L * (t + 1));
+            futures.add(pool.submit(() -> {
+                Map<String, LatencyRecorder> local = new HashMap<>();
+                start.await();
+                for (int i = 0; i < opsForThread; i++) {
+                    // Datele operației sunt generate înainte de măsurare (String.format, Normalizer)
+                    String existingName = generator.contactAt(random.nextInt(contactCount)).getName();
+                    boolean write = random.nextDouble() < writeRatio;
+                    boolean add = random.nextBoolean();
+                    Contact c = !write ? null : add
+                            ? generator.contactAt(nextNewIndex.getAndIncrement())
+                            : generator.contactAt(random.nextInt(contactCount));
+                    String op;
+                    long begin = System.nanoTime();
+                    if (write) {
+                        lock.writeLock().lock();
+                        try {
+                            if (add) {
+                                op = "add";
+                                manager.addContact(c.getName(), c.getPhoneNumber(), c.getEmail());
+                            } else {
+                                op = "update";
+                                manager.updateContact(existingName, "", c.getPhoneNumber(), "");
+                            }
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                    } else {
+                        lock.readLock().lock();
+                        try {
+                            if (random.nextDouble() < FILTER_SHARE_OF_READS) {
+                                op = "filter";
+                                List<String> codes = generator.getPhoneCodes();
+                                manager.filterContactsByPhoneCode(codes.get(random.nextInt(codes.size())));
+                            } else {
+                                op = "find";
+                                assertNotNull(manager.findContact(existingName), existingName);
+                            }
+                        } finally {
+                            lock.readLock().unlock();
+                        }
+                    }
+                    long elapsed = System.nanoTime() - begin;
+                    local.computeIfAbsent(op, k -> new LatencyRecorder()).record(elapsed);
+                }
+                return local;
+            }));
+        }
+
+        long wallStart = System.nanoTime();
+        start.countDown();
+        Map<String, LatencyRecorder> merged = new TreeMap<>();
+        LatencyRecorder total = new LatencyRecorder();
+        try {
+            for (Future<Map<String, LatencyRecorder>> f : futures) {
+                for (Map.Entry<String, LatencyRecorder> e : f.get().entrySet()) {
+                    merged.computeIfAbsent(e.getKey(), k -> new LatencyRecorder()).addAll(e.getValue());
+                    total.addAll(e.getValue());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long wallNanos = System.nanoTime() - wallStart;
+        for (LatencyRecorder r : merged.values()) {
+            r.wallNanos = wallNanos;
+        }
+        total.wallNanos = wallNanos;
+        merged.put("total", total);
+        assertEquals(operations, total.count);
+        return merged;
+    }
+
+    private void report(long loadNanos, Map<String, LatencyRecorder> results, ContactManager manager) {
+        System.out.printf("Load test: %d contacts, seed %d, %d threads, %d ops, write ratio %.2f%n",
+                contactCount, seed, threads, operations, writeRatio);
+        System.out.printf("Initial load: %.1f ms%n", loadNanos / 1e6);
+        System.out.printf("%-8s %10s %12s %10s %10s %10s%n", "op", "count", "ops/s", "p50 us", "p99 us", "p999 us");
+        for (Map.Entry<String, LatencyRecorder> e : results.entrySet()) {
+            LatencyRecorder r = e.getValue();
+            System.out.printf("%-8s %10d %12.1f %10.1f %10.1f %10.1f%n", e.getKey(), r.count,
+                    r.count / (r.wallNanos / 1e9),
+                    r.percentile(0.50) / 1e3, r.percentile(0.99) / 1e3, r.percentile(0.999) / 1e3);
+        }
+        System.out.println("Details cache: " + manager.getDetailsCache());
+    }
+
+    /**
+     * Colectează latențele (în nanosecunde) pentru un tip de operație.
+     */
+    private static class LatencyRecorder {
+        private long[] samples = new long[1024];
+        private int count;
+        private long wallNanos;
+        private boolean sorted;
+
+        void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+            sorted = false;
+        }
+
+        void addAll(LatencyRecorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.samples[i]);
+            }
+        }
+
+        long percentile(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(samples, 0, count);
+                sorted = true;
+            }
+            int index = (int) Math.ceil(p * count) - 1;
+            return samples[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+}
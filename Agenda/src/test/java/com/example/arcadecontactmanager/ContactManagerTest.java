@@ -1,5 +1,7 @@
 package com.example.arcadecontactmanager;
 
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
 import org.junit.jupiter.api.*;
 
 import java.util.List;
@@ -13,16 +15,18 @@ import static org.junit.jupiter.api.Assertions.*;
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class ContactManagerTest {
 
+    /**
+     * Bază de date izolată, pentru a nu atinge contactele reale din "contactdb".
+     */
+    private static final String TEST_DATABASE = "contactdb_test";
+
     private static ContactManager contactManager;
 
     @BeforeAll
     public static void setUp() {
-        contactManager = new ContactManager();
-        // Golim tabela pentru a începe "de la zero" (atenție la datele reale!)
-        List<Contact> existing = contactManager.getContacts();
-        for (Contact c : existing) {
-            contactManager.deleteContact(c.getName());
-        }
+        // Pornim "de la zero" într-o bază separată
+        dropTestDatabase();
+        contactManager = new ContactManager(ContactManager.DEFAULT_CONNECTION_STRING, TEST_DATABASE);
     }
 
     @Test
@@ -83,5 +87,12 @@ public class ContactManagerTest {
     @AfterAll
     public static void tearDown() {
         contactManager.close();
+        dropTestDatabase();
+    }
+
+    private static void dropTestDatabase() {
+        try (MongoClient client = MongoClients.create(ContactManager.DEFAULT_CONNECTION_STRING)) {
+            client.getDatabase(TEST_DATABASE).drop();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.example.arcadecontactmanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste pentru ParallelQueryExecutor (nu necesită MongoDB).
+ * Rezultatele paralele trebuie să coincidă cu cele secvențiale.
+ */
+public class ParallelQueryExecutorTest {
+
+    /**
+     * Prag și partiții mici, ca execuția paralelă să fie folosită și pe liste de test.
+     */
+    private final ParallelQueryExecutor parallel = new ParallelQueryExecutor(1, 64);
+
+    @Test
+    public void testParallelFilterKeepsOrder() {
+        List<Contact> contacts = new SyntheticContactGenerator(1).generate(5_000);
+        List<Contact> expected = new ArrayList<>();
+        for (Contact c : contacts) {
+            if (PhoneCodeUtil.extractPhoneCode(c.getPhoneNumber()).equals("44")) {
+                expected.add(c);
+            }
+        }
+        List<Contact> actual = parallel.filter(contacts,
+                c -> PhoneCodeUtil.extractPhoneCode(c.getPhoneNumber()).equals("44"));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testParallelSortMatchesSequentialSort() {
+        List<Contact> contacts = new SyntheticContactGenerator(2).generate(5_000);
+        contacts.add(new Contact("alice", "", ""));
+        contacts.add(new Contact("Alice", "", ""));
+        contacts.add(new Contact("Ștefan", "", ""));
+        contacts.add(new Contact("STEFAN", "", ""));
+
+        List<Contact> expected = new ArrayList<>(contacts);
+        Collections.sort(expected, Comparator.comparing(Contact::getName, String.CASE_INSENSITIVE_ORDER));
+
+        parallel.sortByName(contacts);
+        assertEquals(expected, contacts);
+    }
+
+    @Test
+    public void testSortKeyMatchesCaseInsensitiveOrder() {
+        String[] names = {"alice", "ALICE", "Bob", "ß", "İstanbul", "ışık", "Ödegaard", "zoë"};
+        for (String a : names) {
+            for (String b : names) {
+                assertEquals(Integer.signum(String.CASE_INSENSITIVE_ORDER.compare(a, b)),
+                        Integer.signum(ParallelQueryExecutor.sortKey(a).compareTo(ParallelQueryExecutor.sortKey(b))),
+                        a + " vs " + b);
+            }
+        }
+    }
+}
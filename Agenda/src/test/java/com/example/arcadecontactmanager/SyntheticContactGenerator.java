@@ -0,0 +1,105 @@
+package com.example.arcadecontactmanager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator determinist de contacte sintetice pentru testele de încărcare.
+ * Aceeași sămânță (seed) produce mereu același set de date: nume realiste (cu diacritice)
+ * și numere de telefon distribuite pe toate codurile cunoscute de PhoneCodeUtil.
+ */
+public class SyntheticContactGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "Ștefan", "Ioana", "Mihai", "Mădălina", "Răzvan", "Tudor", "Irina", "Ionuț", "Cătălina", "Andrei",
+            "José", "François", "Zoë", "Søren", "Łukasz", "Jürgen", "Chloé", "Tomáš", "Ágnes", "Nikolaï",
+            "Oliver", "Emma", "Liam", "Sofia", "Hiroshi", "Yuki", "Wei", "Priya", "Arjun", "Olga"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Popescu", "Ionescu", "Mihăilă", "Țurcanu", "Cojocaru", "Rusu", "Culicov", "Munteanu", "Bălan", "Ciobanu",
+            "Müller", "Schröder", "García", "Núñez", "Lefèvre", "Ødegaard", "Wójcik", "Kovačević", "Horváth", "Ivanov",
+            "Smith", "Brown", "Wilson", "Tanaka", "Sato", "Wang", "Li", "Sharma", "Patel", "Petrova"
+    };
+
+    private static final String[] EMAIL_DOMAINS = {
+            "example.com", "mail.md", "post.ro", "web.de", "example.co.uk", "example.jp", "example.in"
+    };
+
+    /**
+     * Codurile telefonice cunoscute, sortate pentru o ordine stabilă.
+     */
+    private final List<String> phoneCodes;
+
+    private final long seed;
+
+    /**
+     * @param seed sămânța generatorului pseudo-aleator
+     */
+    public SyntheticContactGenerator(long seed) {
+        this.seed = seed;
+        this.phoneCodes = new ArrayList<>(PhoneCodeUtil.getCountryCodes().keySet());
+        Collections.sort(this.phoneCodes);
+    }
+
+    /**
+     * Returnează codurile telefonice folosite (în ordinea în care sunt distribuite).
+     */
+    public List<String> getPhoneCodes() {
+        return phoneCodes;
+    }
+
+    /**
+     * Generează contactul cu indicele dat. Rezultatul depinde doar de (seed, index),
+     * așa că seturi mari pot fi generate pe bucăți, fără a le ține în memorie.
+     * Numele sunt unice, deoarece conțin indicele.
+     *
+     * @param index indicele contactului (0, 1, 2, ...)
+     * @return contactul (fără id)
+     */
+    public Contact contactAt(long index) {
+        Random random = new Random(seed * 0x9E3779B97F4A7C15L + index);
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String name = first + " " + last + " " + String.format("%07d", index);
+
+        // Codurile sunt distribuite circular, ca fiecare cod să apară la fel de des
+        String code = phoneCodes.get((int) (index % phoneCodes.size()));
+        String phone = "+" + code + " "
+                + (100 + random.nextInt(900)) + " "
+                + (100 + random.nextInt(900)) + " "
+                + (100 + random.nextInt(900));
+
+        String email = toAscii(first).toLowerCase() + "." + toAscii(last).toLowerCase() + index
+                + "@" + EMAIL_DOMAINS[random.nextInt(EMAIL_DOMAINS.length)];
+        return new Contact(name, phone, email);
+    }
+
+    /**
+     * Generează primele count contacte.
+     *
+     * @param count numărul de contacte
+     * @return lista contactelor
+     */
+    public List<Contact> generate(int count) {
+        List<Contact> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(contactAt(i));
+        }
+        return result;
+    }
+
+    /**
+     * Elimină diacriticele (pentru partea locală a adresei de email).
+     */
+    private static String toAscii(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "")
+                .replace("ø", "o").replace("Ø", "O")
+                .replace("ł", "l").replace("Ł", "L")
+                .replaceAll("[^A-Za-z]", "");
+    }
+}
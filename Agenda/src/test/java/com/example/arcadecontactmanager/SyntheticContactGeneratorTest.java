@@ -0,0 +1,41 @@
+package com.example.arcadecontactmanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste pentru SyntheticContactGenerator (nu necesită MongoDB).
+ * Verificăm determinismul, unicitatea numelor și acoperirea tuturor codurilor telefonice.
+ */
+public class SyntheticContactGeneratorTest {
+
+    @Test
+    public void testSameSeedProducesSameData() {
+        List<Contact> first = new SyntheticContactGenerator(7).generate(1000);
+        List<Contact> second = new SyntheticContactGenerator(7).generate(1000);
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).toString(), second.get(i).toString());
+        }
+        assertEquals(first.get(500).toString(), new SyntheticContactGenerator(7).contactAt(500).toString());
+    }
+
+    @Test
+    public void testNamesUniqueAndAllCodesCovered() {
+        SyntheticContactGenerator generator = new SyntheticContactGenerator(42);
+        Set<String> names = new HashSet<>();
+        Map<String, Integer> perCode = new HashMap<>();
+        for (Contact c : generator.generate(10_000)) {
+            assertTrue(names.add(c.getName()), "Nume duplicat: " + c.getName());
+            String code = PhoneCodeUtil.extractPhoneCode(c.getPhoneNumber());
+            perCode.merge(code, 1, Integer::sum);
+        }
+        assertEquals(PhoneCodeUtil.getCountryCodes().keySet(), perCode.keySet());
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.arcadecontactmanager;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Set de teste pentru ContactManager în modul write-behind (necesită un mongod local).
+ * Verificăm suprapunerea jurnalului peste citiri, aplicarea în MongoDB cu checkpoint și trunchiere,
+ * precum și mutarea în fișierul rejected a operațiilor respinse definitiv.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class WriteBehindContactManagerTest {
+
+    /**
+     * Bază de date izolată, pentru a nu atinge contactele reale din "contactdb".
+     */
+    private static final String TEST_DATABASE = "contactdb_journal_test";
+
+    @TempDir
+    static Path journalDir;
+
+    private static MongoClient client;
+    private static MongoCollection<Document> collection;
+    private static ContactManager contactManager;
+
+    @BeforeAll
+    public static void setUp() {
+        client = MongoClients.create(ContactManager.DEFAULT_CONNECTION_STRING);
+        client.getDatabase(TEST_DATABASE).drop();
+        collection = client.getDatabase(TEST_DATABASE).getCollection(ContactManager.DEFAULT_COLLECTION_NAME);
+        ObjectId carol = new ObjectId();
+        collection.insertOne(new Document("_id", carol).append("name", "Carol")
+                .append("phone", "+49 555 000 111").append("email", "carol@de.org"));
+
+        // Modificări rămase neaplicate dintr-o rulare anterioară (fără fir de fundal)
+        WriteBehindJournal journal = new WriteBehindJournal(journalDir, null);
+        ObjectId bob = new ObjectId();
+        journal.appendInsert(new ObjectId(), "Alice", "+1 123 456 789", "alice@example.com");
+        journal.appendInsert(bob, "Bob", "+7 999 000 111", "bob@ru.org");
+        journal.appendUpdate(bob, new Document("phone", "+44 777 123 456"));
+        journal.appendDelete(carol);
+        journal.close();
+
+        contactManager = new ContactManager(ContactManager.DEFAULT_CONNECTION_STRING, TEST_DATABASE, journalDir);
+    }
+
+    @Test
+    @Order(1)
+    public void testPendingChangesAreVisible() {
+        List<String> names = new ArrayList<>();
+        for (Contact c : contactManager.getContacts()) {
+            names.add(c.getName());
+        }
+        assertTrue(names.contains("Alice"));
+        assertTrue(names.contains("Bob"));
+        assertFalse(names.contains("Carol"), "Ștergerea din jurnal ar trebui să ascundă contactul.");
+
+        Contact bob = contactManager.findContact("Bob");
+        assertNotNull(bob);
+        assertEquals("+44 777 123 456", bob.getPhoneNumber());
+        assertNull(contactManager.findContact("Carol"));
+
+        List<Contact> uk = contactManager.filterContactsByPhoneCode("44");
+        assertEquals(1, uk.size());
+        assertEquals("Bob", uk.get(0).getName());
+        assertTrue(contactManager.filterContactsByPhoneCode("7").isEmpty());
+    }
+
+    @Test
+    @Order(2)
+    public void testFlushAppliesJournal() throws Exception {
+        WriteBehindJournal journal = contactManager.getJournal();
+        assertTrue(journal.flush(10_000), "Jurnalul ar trebui aplicat în MongoDB.");
+        assertEquals(0, journal.getPendingCount());
+
+        assertEquals(2, collection.countDocuments());
+        assertNull(collection.find(Filters.eq("name", "Carol")).first());
+        assertEquals("+44 777 123 456", collection.find(Filters.eq("name", "Bob")).first().getString("phone"));
+
+        // Checkpoint-ul acoperă ultima înregistrare, iar jurnalul a fost trunchiat
+        String checkpoint = new String(Files.readAllBytes(journalDir.resolve(WriteBehindJournal.CHECKPOINT_FILE)),
+                StandardCharsets.UTF_8);
+        assertEquals("4", checkpoint.trim());
+        assertEquals(0, Files.size(journalDir.resolve(WriteBehindJournal.JOURNAL_FILE)));
+    }
+
+    @Test
+    @Order(3)
+    public void testRejectedWriteDoesNotBlockLaterWrites() throws Exception {
+        // Serverul acceptă doar telefoane în format internațional
+        client.getDatabase(TEST_DATABASE).runCommand(new Document("collMod", ContactManager.DEFAULT_COLLECTION_NAME)
+                .append("validator", new Document("phone", new Document("$regex", "^\\+"))));
+
+        contactManager.addContact("Dave", "555 000", "dave@example.com");
+        contactManager.addContact("Eve", "+81 3 1234 5678", "eve@jp.org");
+        WriteBehindJournal journal = contactManager.getJournal();
+        assertTrue(journal.flush(10_000), "Operația respinsă nu trebuie să blocheze jurnalul.");
+
+        assertEquals(1, journal.getRejectedCount());
+        assertNotNull(collection.find(Filters.eq("name", "Eve")).first());
+        assertNull(collection.find(Filters.eq("name", "Dave")).first());
+        String rejected = new String(Files.readAllBytes(journalDir.resolve(WriteBehindJournal.REJECTED_FILE)),
+                StandardCharsets.UTF_8);
+        assertTrue(rejected.contains("Dave"));
+
+        // Managerul nu mai arată modificarea respinsă: nici detaliile din cache, nici intrarea din listă
+        assertNull(contactManager.findContact("Dave"), "Contactul respins nu trebuie să mai fie găsit.");
+        List<String> names = new ArrayList<>();
+        for (Contact c : contactManager.getContacts()) {
+            names.add(c.getName());
+        }
+        assertFalse(names.contains("Dave"));
+        assertTrue(names.contains("Eve"));
+        assertEquals("+81 3 1234 5678", contactManager.findContact("Eve").getPhoneNumber());
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        contactManager.close();
+        client.getDatabase(TEST_DATABASE).drop();
+        client.close();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.arcadecontactmanager;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste pentru WriteBehindJournal care nu necesită MongoDB: recuperarea după repornire
+ * (inclusiv o ultimă linie scrisă parțial), coalescarea loturilor, compactarea fișierului,
+ * blocarea directorului și clasificarea erorilor.
+ */
+public class WriteBehindJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    public void testPendingChangesSurviveRestart() throws Exception {
+        ObjectId alice = new ObjectId();
+        ObjectId bob = new ObjectId();
+
+        // Firul de fundal nu este pornit, deci nimic nu ajunge în MongoDB
+        WriteBehindJournal journal = new WriteBehindJournal(journalDir, null);
+        journal.appendInsert(alice, "Alice", "+1 123 456 789", "alice@example.com");
+        journal.appendUpdate(alice, new Document("email", "alice@wonderland.com"));
+        journal.appendInsert(bob, "Bob", "+44 777 123 456", "bob@uk.org");
+        journal.appendDelete(bob);
+        journal.close();
+
+        // Simulăm o cădere în timpul scrierii unei înregistrări
+        Files.write(journalDir.resolve(WriteBehindJournal.JOURNAL_FILE),
+                "{\"seq\": 5, \"op\": \"ins".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        WriteBehindJournal reopened = new WriteBehindJournal(journalDir, null);
+        assertEquals(4, reopened.getPendingCount());
+        Map<ObjectId, WriteBehindJournal.PendingChange> changes = reopened.getPendingChanges();
+        assertEquals(2, changes.size());
+        assertTrue(changes.get(alice).isInserted());
+        assertEquals("alice@wonderland.com", changes.get(alice).getFields().getString("email"));
+        assertEquals("Alice", changes.get(alice).getFields().getString("name"));
+        assertTrue(changes.get(bob).isDeleted());
+        // Doar contactele cerute (cele fără modificări lipsesc)
+        Map<ObjectId, WriteBehindJournal.PendingChange> some = reopened.getPendingChanges(Arrays.asList(bob, new ObjectId()));
+        assertEquals(1, some.size());
+        assertTrue(some.get(bob).isDeleted());
+
+        // Linia parțială a fost eliminată, iar secvențele continuă după ultima validă
+        reopened.appendUpdate(alice, new Document("phone", "+7 999 000 111"));
+        reopened.close();
+        assertEquals(5, Files.readAllLines(journalDir.resolve(WriteBehindJournal.JOURNAL_FILE)).size());
+    }
+
+    @Test
+    public void testCoalesceProducesOneWritePerContact() {
+        ObjectId inserted = new ObjectId();
+        ObjectId updated = new ObjectId();
+        ObjectId deleted = new ObjectId();
+        List<Document> batch = new ArrayList<>();
+        batch.add(record(1, "insert", inserted, new Document("name", "Ana").append("phone", "+49 1").append("email", "a@x")));
+        batch.add(record(2, "update", updated, new Document("phone", "+81 2")));
+        batch.add(record(3, "update", inserted, new Document("email", "ana@x")));
+        batch.add(record(4, "update", updated, new Document("email", "u@x")));
+        batch.add(record(5, "update", deleted, new Document("name", "Gone")));
+        batch.add(record(6, "delete", deleted, new Document()));
+
+        Map<ObjectId, WriteModel<Document>> writes = WriteBehindJournal.coalesce(batch);
+        assertEquals(Arrays.asList(inserted, updated, deleted), new ArrayList<>(writes.keySet()));
+
+        ReplaceOneModel<Document> insert = (ReplaceOneModel<Document>) writes.get(inserted);
+        assertEquals("ana@x", insert.getReplacement().getString("email"));
+        assertEquals(inserted, insert.getReplacement().getObjectId("_id"));
+        assertTrue(insert.getReplaceOptions().isUpsert());
+
+        UpdateOneModel<Document> update = (UpdateOneModel<Document>) writes.get(updated);
+        Document set = ((Document) update.getUpdate()).get("$set", Document.class);
+        assertEquals(new Document("phone", "+81 2").append("email", "u@x"), set);
+
+        assertTrue(writes.get(deleted) instanceof DeleteOneModel);
+    }
+
+    @Test
+    public void testAppliedPrefixIsCompacted() throws Exception {
+        ObjectId alice = new ObjectId();
+        ObjectId bob = new ObjectId();
+        Path journalFile = journalDir.resolve(WriteBehindJournal.JOURNAL_FILE);
+
+        // Prag mic, ca prefixul aplicat să fie eliminat chiar dacă mai există modificări în așteptare
+        WriteBehindJournal journal = new WriteBehindJournal(journalDir, null, 1);
+        for (int i = 0; i < 10; i++) {
+            journal.appendUpdate(alice, new Document("phone", "+1 " + i));
+        }
+        journal.appendInsert(bob, "Bob", "+44 777 123 456", "bob@uk.org");
+        long sizeBefore = Files.size(journalFile);
+        long footprintBefore = journal.estimateMemoryFootprint();
+        assertTrue(footprintBefore > sizeBefore, "Înregistrările în așteptare ocupă memorie");
+
+        journal.markApplied(10);
+        assertEquals(1, journal.getPendingCount());
+        assertTrue(journal.estimateMemoryFootprint() < footprintBefore);
+        assertTrue(Files.size(journalFile) < sizeBefore / 5, "Prefixul aplicat ar trebui eliminat din fișier");
+        assertNull(journal.getPendingChange(alice));
+
+        // Scrierile continuă în fișierul compactat
+        journal.appendDelete(bob);
+        journal.close();
+
+        WriteBehindJournal reopened = new WriteBehindJournal(journalDir, null);
+        assertEquals(2, reopened.getPendingCount());
+        assertTrue(reopened.getPendingChange(bob).isDeleted());
+
+        // Fără modificări în așteptare, fișierul este trunchiat
+        reopened.markApplied(12);
+        assertEquals(0, reopened.getPendingCount());
+        assertEquals(0, Files.size(journalFile));
+        assertEquals(0, reopened.estimateMemoryFootprint());
+        reopened.close();
+    }
+
+    @Test
+    public void testDirectoryIsLockedWhileOpen() {
+        WriteBehindJournal journal = new WriteBehindJournal(journalDir, null);
+        assertThrows(IllegalStateException.class, () -> new WriteBehindJournal(journalDir, null));
+        journal.close();
+
+        // După închidere, directorul poate fi redeschis
+        new WriteBehindJournal(journalDir, null).close();
+    }
+
+    @Test
+    public void testTransientErrorsAreRetried() {
+        assertTrue(WriteBehindJournal.isTransient(
+                new MongoSocketReadException("Connection reset", new ServerAddress())));
+        // NotWritablePrimary (10107) în timpul unui failover
+        assertTrue(WriteBehindJournal.isTransient(new MongoException(10107, "not primary")));
+        // Validarea documentului (121) și cheia duplicată (11000) nu trec la reîncercare
+        assertFalse(WriteBehindJournal.isTransient(new MongoException(121, "Document failed validation")));
+        assertFalse(WriteBehindJournal.isTransient(new MongoException(11000, "E11000 duplicate key")));
+    }
+
+    private static Document record(long seq, String op, ObjectId id, Document fields) {
+        return new Document("seq", seq)
+                .append("op", op)
+                .append("id", id)
+                .append("fields", fields);
+    }
+}